@@ -4,6 +4,8 @@ import { performDeltaSync, updatePendingChangesCount } from '../store/slices/syn
 import { logoutUser } from '../store/slices/authSlice';
 import NetInfo from '@react-native-community/netinfo';
 import { AuthService } from './auth/AuthService';
+import { deltaSyncService } from './deltaSyncService';
+import { SyncPushChannel } from './sync/SyncPushChannel';
 
 class BackgroundSyncService {
   private syncInterval: NodeJS.Timeout | null = null;
@@ -12,9 +14,11 @@ class BackgroundSyncService {
   private appStateSubscription: any = null;
   private authService: AuthService;
   private wasOffline = false;
+  private pushChannel: SyncPushChannel;
 
   constructor() {
     this.authService = new AuthService();
+    this.pushChannel = new SyncPushChannel(this.handlePushHint);
   }
 
   /**
@@ -34,8 +38,16 @@ class BackgroundSyncService {
       console.error('[BackgroundSync] Initial sync failed:', error);
     });
 
+    // Server pushes a hint when there is something new; polling is only the fallback
+    this.pushChannel.start().catch(error => {
+      console.error('[BackgroundSync] Failed to open push channel:', error);
+    });
+
     // Set up periodic sync
     this.syncInterval = setInterval(() => {
+      if (this.pushChannel.isConnected()) {
+        return;
+      }
       this.performSync().catch(error => {
         console.error('[BackgroundSync] Periodic sync failed:', error);
       });
@@ -68,6 +80,8 @@ class BackgroundSyncService {
       this.syncInterval = null;
     }
 
+    this.pushChannel.stop();
+
     if (this.appStateSubscription) {
       this.appStateSubscription.remove();
       this.appStateSubscription = null;
@@ -124,6 +138,22 @@ class BackgroundSyncService {
     }
   }
 
+  /**
+   * Sync only when the pushed cursor is ahead of the one we already hold
+   */
+  private handlePushHint = async (cursor: string) => {
+    try {
+      const current = await deltaSyncService.getSyncCursor();
+      if (current === cursor) {
+        return;
+      }
+      console.log('[BackgroundSync] Server reported new changes, performing sync');
+      await this.performSync();
+    } catch (error) {
+      console.error('[BackgroundSync] Push-triggered sync failed:', error);
+    }
+  };
+
   /**
    * Handle app state changes
    */
@@ -43,10 +43,19 @@ export class DeltaSyncService {
     console.log('[DeltaSync] Found local changes:', localChanges.length);
     console.log('[DeltaSync] Changes:', JSON.stringify(localChanges, null, 2));
 
-    // Build sync request
+    // Build sync request (the cursor makes the server feed exact and paged)
+    let cursor = await this.getSyncCursor();
+    if (!cursor && !lastSyncAt) {
+      // First sync on this device: load the current state in one read
+      // instead of replaying the whole change history page by page
+      cursor = await this.bootstrap(await this.getAuthToken());
+    }
+    const batchId = localChanges.length > 0 ? await this.getBatchId(localChanges) : null;
     const request: DeltaSyncRequest = {
       changes: localChanges,
       lastSyncAt: lastSyncAt || undefined,
+      cursor: cursor || undefined,
+      batchId: batchId || undefined,
     };
 
     // Send to server
@@ -54,11 +63,72 @@ export class DeltaSyncService {
     console.log('[DeltaSync] Got auth token:', token ? 'YES' : 'NO');
     console.log('[DeltaSync] Sending to:', `${this.baseUrl}/sync/delta`);
 
+    let syncResponse = await this.postDeltaSync(request, token);
+    console.log('[DeltaSync] Sync response:', JSON.stringify(syncResponse, null, 2));
+
+    // The server has the batch now; the next one gets a fresh id
+    if (batchId) {
+      await this.clearPendingBatch();
+    }
+
+    // Apply server changes to local database
+    await this.applyServerChanges(syncResponse.changes);
+
+    // Handle conflicts (last-write-wins)
+    await this.resolveConflicts(syncResponse.conflicts);
+
+    // Follow the remaining pages of server changes
+    while (syncResponse.hasMore && syncResponse.nextCursor) {
+      await this.updateSyncCursor(syncResponse.nextCursor);
+      console.log('[DeltaSync] Fetching next page of server changes');
+      syncResponse = await this.postDeltaSync({ changes: [], cursor: syncResponse.nextCursor }, token);
+      await this.applyServerChanges(syncResponse.changes);
+    }
+
+    if (syncResponse.nextCursor) {
+      await this.updateSyncCursor(syncResponse.nextCursor);
+    }
+
+    // Update last sync timestamp
+    await this.updateLastSyncTimestamp(syncResponse.lastSyncAt);
+
+    // Clear processed sync logs (only those that were sent to server)
+    await this.clearProcessedSyncLogs(syncResponse.lastSyncAt);
+
+    return syncResponse;
+  }
+
+  private async bootstrap(token: string): Promise<string | null> {
+    const response = await fetch(`${this.baseUrl}/sync/delta/bootstrap`, {
+      headers: {
+        'Authorization': `Bearer ${token}`,
+        'X-Sync-Protocol': '2',
+      },
+    });
+
+    if (!response.ok) {
+      // The regular feed still brings the device up to date
+      console.error('[DeltaSync] Bootstrap failed:', response.status);
+      return null;
+    }
+
+    const state = await response.json();
+    console.log('[DeltaSync] Bootstrap entities:', state.changes.length);
+    await this.applyServerChanges(state.changes);
+    if (state.nextCursor) {
+      await this.updateSyncCursor(state.nextCursor);
+    }
+    return state.nextCursor || null;
+  }
+
+  private async postDeltaSync(request: DeltaSyncRequest, token: string): Promise<DeltaSyncResponse> {
     const response = await fetch(`${this.baseUrl}/sync/delta`, {
       method: 'POST',
       headers: {
         'Content-Type': 'application/json',
         'Authorization': `Bearer ${token}`,
+        // Protocol 2: snapshots arrive as JSON objects instead of JSON strings
+        'X-Sync-Protocol': '2',
       },
       body: JSON.stringify(request),
     });
@@ -71,22 +141,7 @@ export class DeltaSyncService {
       throw new Error(`Sync failed: ${response.status} - ${errorText}`);
     }
 
-    const syncResponse: DeltaSyncResponse = await response.json();
-    console.log('[DeltaSync] Sync response:', JSON.stringify(syncResponse, null, 2));
-
-    // Apply server changes to local database
-    await this.applyServerChanges(syncResponse.changes);
-
-    // Handle conflicts (last-write-wins)
-    await this.resolveConflicts(syncResponse.conflicts);
-
-    // Update last sync timestamp
-    await this.updateLastSyncTimestamp(syncResponse.lastSyncAt);
-
-    // Clear processed sync logs (only those that were sent to server)
-    await this.clearProcessedSyncLogs(syncResponse.lastSyncAt);
-
-    return syncResponse;
+    return response.json();
   }
 
   /**
@@ -255,8 +310,7 @@ export class DeltaSyncService {
         switch (change.action) {
           case 'create':
           case 'update':
-            // Parse data from JSON string to object
-            const parsedData = typeof change.data === 'string' ? JSON.parse(change.data) : change.data;
+            const parsedData = this.parseSnapshot(change.data);
             await this.upsertEntity(change.entityType, parsedData);
             break;
           case 'delete':
@@ -389,7 +443,7 @@ export class DeltaSyncService {
       console.log(`[DeltaSync] Local data:`, conflict.localData);
       
       // Check if local action was a delete
-      const localData = JSON.parse(conflict.localData || '{}');
+      const localData = this.parseSnapshot(conflict.localData);
       const isLocalDelete = !localData.title && !localData.name; // Delete logs only have id, userId, teamId
       
       if (isLocalDelete) {
@@ -398,7 +452,7 @@ export class DeltaSyncService {
         await this.deleteEntity(conflict.entityType, conflict.entityId);
         
         // Update the delete log with the server's version to retry with correct version
-        const serverData = JSON.parse(conflict.serverData || '{}');
+        const serverData = this.parseSnapshot(conflict.serverData);
         const serverVersion = serverData.version || conflict.serverVersion;
         
         console.log(`[DeltaSync] Updating delete log with server version: ${serverVersion}`);
@@ -428,6 +482,16 @@ export class DeltaSyncService {
     }
   }
 
+  /**
+   * Snapshots are JSON strings in sync protocol 1 and objects in protocol 2
+   */
+  private parseSnapshot(data: any): any {
+    if (data === null || data === undefined || data === '') {
+      return {};
+    }
+    return typeof data === 'string' ? JSON.parse(data) : data;
+  }
+
   private async markConflictResolved(conflict: any): Promise<void> {
     if (!this.db) return;
 
@@ -476,6 +540,88 @@ export class DeltaSyncService {
     );
   }
 
+  /**
+   * Get the server change-feed cursor from metadata
+   */
+  async getSyncCursor(): Promise<string | null> {
+    if (!this.db) {
+      await this.initialize();
+    }
+    if (!this.db) return null;
+
+    try {
+      const result = await this.db.getFirstAsync(
+        `SELECT value FROM sync_metadata WHERE key = 'sync_cursor'`
+      ) as any;
+
+      return result?.value || null;
+    } catch (error) {
+      console.error('Error getting sync cursor:', error);
+      return null;
+    }
+  }
+
+  /**
+   * Update the server change-feed cursor
+   */
+  private async updateSyncCursor(cursor: string): Promise<void> {
+    if (!this.db) return;
+
+    await this.db.runAsync(
+      `INSERT OR REPLACE INTO sync_metadata (key, value) VALUES ('sync_cursor', ?)`,
+      [cursor]
+    );
+  }
+
+  /**
+   * Id for the batch about to be sent. A batch that failed to get a
+   * response keeps its id, so the server recognises the retry and replays
+   * its answer instead of applying the changes again.
+   */
+  private async getBatchId(changes: DeltaSyncChange[]): Promise<string> {
+    const signature = this.batchSignature(changes);
+    const pending = await this.db!.getFirstAsync(
+      `SELECT value FROM sync_metadata WHERE key = 'pending_batch'`
+    ) as any;
+
+    if (pending?.value) {
+      try {
+        const batch = JSON.parse(pending.value);
+        if (batch.signature === signature) {
+          return batch.id;
+        }
+      } catch (error) {
+        console.error('Error reading pending sync batch:', error);
+      }
+    }
+
+    // New or different changes since the failed attempt: start a new batch
+    const id = this.generateUUID();
+    await this.db!.runAsync(
+      `INSERT OR REPLACE INTO sync_metadata (key, value) VALUES ('pending_batch', ?)`,
+      [JSON.stringify({ id, signature })]
+    );
+    return id;
+  }
+
+  private async clearPendingBatch(): Promise<void> {
+    if (!this.db) return;
+
+    await this.db.runAsync(`DELETE FROM sync_metadata WHERE key = 'pending_batch'`);
+  }
+
+  // Cheap fingerprint of the batch contents, not a security hash
+  private batchSignature(changes: DeltaSyncChange[]): string {
+    let hash = 5381;
+    for (const change of changes) {
+      const key = `${change.entityType}:${change.entityId}:${change.action}:${change.version}:${change.timestamp}`;
+      for (let i = 0; i < key.length; i++) {
+        hash = ((hash << 5) + hash + key.charCodeAt(i)) | 0;
+      }
+    }
+    return `${changes.length}-${(hash >>> 0).toString(16)}`;
+  }
+
   /**
    * Clear processed sync logs older than last sync
    */
@@ -0,0 +1,127 @@
+import { Config } from '../../constants';
+import * as SecureStore from 'expo-secure-store';
+
+type ChangesListener = (cursor: string) => void;
+
+/**
+ * Listens to the server's /sync/delta/stream SSE channel. React Native has no
+ * EventSource, so the stream is read through XMLHttpRequest progress events.
+ * Reconnects with backoff until stopped.
+ */
+export class SyncPushChannel {
+  private xhr: XMLHttpRequest | null = null;
+  private reconnectTimer: NodeJS.Timeout | null = null;
+  private reconnectDelayMs = 1000;
+  private readonly maxReconnectDelayMs = 60000;
+  private readOffset = 0;
+  private buffer = '';
+  private connected = false;
+  private running = false;
+
+  constructor(private onChanges: ChangesListener) {}
+
+  async start() {
+    if (this.running) return;
+    this.running = true;
+    await this.connect();
+  }
+
+  stop() {
+    this.running = false;
+    this.connected = false;
+    if (this.reconnectTimer) {
+      clearTimeout(this.reconnectTimer);
+      this.reconnectTimer = null;
+    }
+    if (this.xhr) {
+      this.xhr.abort();
+      this.xhr = null;
+    }
+  }
+
+  isConnected() {
+    return this.connected;
+  }
+
+  private async connect() {
+    const token = await SecureStore.getItemAsync(Config.storageKeys.authToken);
+    if (!token || !this.running) {
+      this.scheduleReconnect();
+      return;
+    }
+
+    const xhr = new XMLHttpRequest();
+    this.xhr = xhr;
+    this.readOffset = 0;
+    this.buffer = '';
+
+    xhr.open('GET', `${Config.apiBaseUrl}/sync/delta/stream`);
+    xhr.setRequestHeader('Authorization', `Bearer ${token}`);
+    xhr.setRequestHeader('Accept', 'text/event-stream');
+
+    xhr.onprogress = () => {
+      if (xhr.status === 200 && !this.connected) {
+        this.connected = true;
+        this.reconnectDelayMs = 1000;
+      }
+      this.consume(xhr.responseText);
+    };
+    xhr.onloadend = () => {
+      if (this.xhr === xhr) {
+        this.xhr = null;
+        this.connected = false;
+        this.scheduleReconnect();
+      }
+    };
+
+    xhr.send();
+  }
+
+  private consume(responseText: string) {
+    this.buffer += responseText.substring(this.readOffset);
+    this.readOffset = responseText.length;
+
+    // Events are separated by a blank line
+    let boundary = this.buffer.indexOf('\n\n');
+    while (boundary >= 0) {
+      const frame = this.buffer.substring(0, boundary);
+      this.buffer = this.buffer.substring(boundary + 2);
+      this.dispatch(frame);
+      boundary = this.buffer.indexOf('\n\n');
+    }
+  }
+
+  private dispatch(frame: string) {
+    let event = 'message';
+    let data = '';
+    for (const line of frame.split('\n')) {
+      if (line.startsWith('event:')) {
+        event = line.substring(6).trim();
+      } else if (line.startsWith('data:')) {
+        data += line.substring(5).trim();
+      }
+    }
+
+    if (event !== 'changes' || !data) return;
+    try {
+      const { cursor } = JSON.parse(data);
+      if (cursor) {
+        this.onChanges(cursor);
+      }
+    } catch (error) {
+      console.error('[SyncPush] Invalid event payload:', error);
+    }
+  }
+
+  private scheduleReconnect() {
+    if (!this.running || this.reconnectTimer) return;
+    this.reconnectTimer = setTimeout(() => {
+      this.reconnectTimer = null;
+      this.connect().catch(error => {
+        console.error('[SyncPush] Reconnect failed:', error);
+        this.scheduleReconnect();
+      });
+    }, this.reconnectDelayMs);
+    this.reconnectDelayMs = Math.min(this.reconnectDelayMs * 2, this.maxReconnectDelayMs);
+  }
+}
@@ -135,6 +135,9 @@ export interface DeltaSyncChange {
 export interface DeltaSyncRequest {
   changes: DeltaSyncChange[];
   lastSyncAt?: string;
+  cursor?: string;
+  limit?: number;
+  batchId?: string;
 }
 
 export interface DeltaSyncResponse {
@@ -143,6 +146,9 @@ export interface DeltaSyncResponse {
   lastSyncAt: string;
   success: boolean;
   message: string;
+  nextCursor?: string;
+  hasMore?: boolean;
+  compacted?: boolean; // history before the cursor was collapsed to latest states
 }
 
 export interface DeltaSyncConflict {
@@ -0,0 +1,23 @@
+package com.server.taskin.config;
+
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tuning of the application ObjectMapper. Blackbird replaces reflective
+ * property access with generated lambdas. It is opt-in
+ * (app.json.blackbird.enabled): the sync DTOs are dominated by snapshot
+ * strings and timestamps, and JsonPathsBenchmark shows no gain on them.
+ */
+@Configuration
+public class JacksonConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.json.blackbird.enabled", havingValue = "true")
+    public Jackson2ObjectMapperBuilderCustomizer blackbirdCustomizer() {
+        return builder -> builder.postConfigurer(mapper -> mapper.registerModule(new BlackbirdModule()));
+    }
+}
@@ -0,0 +1,87 @@
+package com.server.taskin.config;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.server.taskin.dto.DeltaSyncResponse;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * The JSON subsystem shared by code that reads or writes JSON outside the
+ * message converters. Everything is derived from the Spring-configured
+ * ObjectMapper, so serializer caches and modules (Blackbird included) are
+ * shared, and readers/writers are built once instead of per call.
+ */
+@Component
+public class JsonCodecs {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+    private ObjectReader treeReader;
+    private ObjectWriter treeWriter;
+    private ObjectWriter syncChangeWriter;
+
+    @PostConstruct
+    void init() {
+        smileMapper = objectMapper.copyWith(new SmileFactory());
+        cborMapper = objectMapper.copyWith(new CBORFactory());
+        treeReader = objectMapper.readerFor(JsonNode.class);
+        treeWriter = objectMapper.writerFor(JsonNode.class);
+        // Streamed rows are flushed in groups, not after every value
+        syncChangeWriter = objectMapper.writerFor(DeltaSyncResponse.SyncChange.class)
+            .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public ObjectMapper json() {
+        return objectMapper;
+    }
+
+    public ObjectMapper smile() {
+        return smileMapper;
+    }
+
+    public ObjectMapper cbor() {
+        return cborMapper;
+    }
+
+    /**
+     * Streaming factory for the given sync wire format, JSON when it is not
+     * Smile or CBOR.
+     */
+    public JsonFactory factoryFor(MediaType format) {
+        if (WireFormatConfig.SMILE.equalsTypeAndSubtype(format)) {
+            return smileMapper.getFactory();
+        }
+        if (WireFormatConfig.CBOR.equalsTypeAndSubtype(format)) {
+            return cborMapper.getFactory();
+        }
+        return objectMapper.getFactory();
+    }
+
+    public JsonFactory jsonFactory() {
+        return objectMapper.getFactory();
+    }
+
+    public ObjectReader treeReader() {
+        return treeReader;
+    }
+
+    public ObjectWriter treeWriter() {
+        return treeWriter;
+    }
+
+    public ObjectWriter syncChangeWriter() {
+        return syncChangeWriter;
+    }
+}
@@ -0,0 +1,32 @@
+package com.server.taskin.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Registers {@link SyncCompressionFilter} for the sync endpoints only; the
+ * other APIs exchange small payloads that are not worth the CPU.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.sync.compression.enabled", havingValue = "true", matchIfMissing = true)
+public class SyncCompressionConfig {
+
+    @Value("${app.sync.compression.min-response-size:2KB}")
+    private DataSize minResponseSize;
+
+    @Value("${app.sync.compression.max-inflated-request-size:64MB}")
+    private DataSize maxInflatedRequestSize;
+
+    @Bean
+    public FilterRegistrationBean<SyncCompressionFilter> syncCompressionFilter(MeterRegistry meterRegistry) {
+        FilterRegistrationBean<SyncCompressionFilter> registration = new FilterRegistrationBean<>(
+            new SyncCompressionFilter(meterRegistry, (int) minResponseSize.toBytes(), maxInflatedRequestSize.toBytes()));
+        registration.addUrlPatterns("/sync/*");
+        return registration;
+    }
+}
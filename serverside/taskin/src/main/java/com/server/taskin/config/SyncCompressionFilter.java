@@ -0,0 +1,609 @@
+package com.server.taskin.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Transparent compression for the sync endpoints. Request bodies sent with
+ * {@code Content-Encoding: gzip} or {@code deflate} are inflated up to a
+ * fixed limit, and responses larger than the threshold are gzipped for
+ * clients that accept it. Event streams pass through untouched.
+ * <p>
+ * Records, per endpoint and direction, raw and encoded sizes and the CPU
+ * time spent in the codec, so the threshold can be tuned from real traffic.
+ */
+public class SyncCompressionFilter extends OncePerRequestFilter {
+
+    static final String RATIO_METRIC = "taskin.sync.compression.ratio";
+    static final String CPU_METRIC = "taskin.sync.compression.cpu";
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final MeterRegistry meterRegistry;
+    private final int minResponseSize;
+    private final long maxInflatedRequestSize;
+
+    public SyncCompressionFilter(MeterRegistry meterRegistry, int minResponseSize, long maxInflatedRequestSize) {
+        this.meterRegistry = meterRegistry;
+        this.minResponseSize = minResponseSize;
+        this.maxInflatedRequestSize = maxInflatedRequestSize;
+    }
+
+    /**
+     * Thrown when an inflated request body exceeds the configured limit.
+     */
+    public static class DecompressionLimitExceededException extends IOException {
+        public DecompressionLimitExceededException(long limit) {
+            super("Corpo da requisição descompactado excede o limite de " + limit + " bytes");
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        InflatingRequest inflating = null;
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding != null && !contentEncoding.equalsIgnoreCase("identity")) {
+            String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+            if (!encoding.equals("gzip") && !encoding.equals("deflate")) {
+                response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE, "Content-Encoding não suportado: " + contentEncoding);
+                return;
+            }
+            inflating = new InflatingRequest(request, encoding);
+            request = inflating;
+        }
+
+        CompressingResponse compressing = null;
+        if (acceptsGzip(request) && !acceptsEventStream(request)) {
+            compressing = new CompressingResponse(response);
+            response = compressing;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            if (compressing != null && !request.isAsyncStarted()) {
+                compressing.finish();
+            }
+        }
+
+        String uri = endpoint(request);
+        if (inflating != null && inflating.stream != null) {
+            record("request", uri, inflating.stream.encoded.count, inflating.stream.decoded, inflating.stream.cpuNanos);
+        }
+        if (compressing != null && compressing.stream != null && compressing.stream.gzip != null) {
+            record("response", uri, compressing.stream.encoded.count, compressing.stream.raw, compressing.stream.cpuNanos);
+        }
+    }
+
+    private void record(String direction, String uri, long encoded, long raw, long cpuNanos) {
+        if (raw == 0) {
+            return;
+        }
+        DistributionSummary.builder(RATIO_METRIC)
+            .description("Encoded size divided by raw size")
+            .tags("direction", direction, "uri", uri)
+            .register(meterRegistry)
+            .record((double) encoded / raw);
+        Timer.builder(CPU_METRIC)
+            .description("Thread CPU time spent compressing or inflating bodies")
+            .tags("direction", direction, "uri", uri)
+            .register(meterRegistry)
+            .record(cpuNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static String endpoint(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return request.getMethod() + " " + (pattern != null ? pattern : "UNKNOWN");
+    }
+
+    // gzip;q=0 refuses gzip, and * stands for codings not listed explicitly
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+
+        Double gzip = null;
+        Double any = null;
+        for (String coding : accept.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = quality(parts);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                gzip = gzip != null ? Math.max(gzip, quality) : quality;
+            } else if (name.equals("*")) {
+                any = quality;
+            }
+        }
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    private static double quality(String[] codingParts) {
+        for (int i = 1; i < codingParts.length; i++) {
+            String parameter = codingParts[i].trim();
+            if (parameter.length() > 1 && Character.toLowerCase(parameter.charAt(0)) == 'q' && parameter.charAt(1) == '=') {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static boolean acceptsEventStream(HttpServletRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        return accept != null && accept.contains("text/event-stream");
+    }
+
+    private static boolean isCompressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("application/json") || type.contains("+json")
+            || (type.startsWith("text/") && !type.startsWith("text/event-stream"));
+    }
+
+    private static long cpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : System.nanoTime();
+    }
+
+    // --- request side ---
+
+    private class InflatingRequest extends HttpServletRequestWrapper {
+        private final String encoding;
+        private InflatingInputStream stream;
+        private BufferedReader reader;
+
+        InflatingRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                stream = new InflatingInputStream(super.getInputStream(), encoding, maxInflatedRequestSize);
+            }
+            return stream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String charset = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                    charset != null ? Charset.forName(charset) : StandardCharsets.UTF_8));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isHiddenHeader(name)) {
+                return null;
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isHiddenHeader(name)) {
+                return Collections.emptyEnumeration();
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+                .filter(name -> !isHiddenHeader(name))
+                .toList());
+        }
+
+        // Downstream sees a plain body of unknown length
+        private boolean isHiddenHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name) || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+    }
+
+    private static class InflatingInputStream extends ServletInputStream {
+        private final ServletInputStream source;
+        private final CountingInputStream encoded;
+        private final String encoding;
+        private final long limit;
+        private InputStream inflater;
+        private long decoded;
+        private long cpuNanos;
+        private boolean finished;
+
+        InflatingInputStream(ServletInputStream source, String encoding, long limit) {
+            this.source = source;
+            this.encoded = new CountingInputStream(source);
+            this.encoding = encoding;
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            int read = read(single, 0, 1);
+            return read < 0 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            long start = cpuTime();
+            try {
+                if (inflater == null) {
+                    // Opening a gzip stream reads its header
+                    inflater = encoding.equals("gzip") ? new GZIPInputStream(encoded, 8192) : new InflaterInputStream(encoded);
+                }
+                int read = inflater.read(buffer, offset, length);
+                if (read < 0) {
+                    finished = true;
+                    return read;
+                }
+                decoded += read;
+                if (decoded > limit) {
+                    throw new DecompressionLimitExceededException(limit);
+                }
+                return read;
+            } finally {
+                cpuNanos += cpuTime() - start;
+            }
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return source.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            source.setReadListener(listener);
+        }
+    }
+
+    private static class CountingInputStream extends InputStream {
+        private final InputStream in;
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = in.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+
+    // --- response side ---
+
+    private class CompressingResponse extends HttpServletResponseWrapper {
+        private CompressingOutputStream stream;
+        private PrintWriter writer;
+
+        CompressingResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (stream == null) {
+                stream = new CompressingOutputStream(this, (HttpServletResponse) getResponse(), false);
+            }
+            return stream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), Charset.forName(getCharacterEncoding())));
+            }
+            return writer;
+        }
+
+        // The length is unknown until we decide whether to compress
+        @Override
+        public void setContentLength(int length) {
+        }
+
+        @Override
+        public void setContentLengthLong(long length) {
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.flush();
+            }
+            super.flushBuffer();
+        }
+
+        /**
+         * Clears headers and body. Encoding is decided again for the new
+         * body, which sets Content-Encoding again when it is compressed.
+         */
+        @Override
+        public void reset() {
+            super.reset();
+            discardStream();
+        }
+
+        /**
+         * Clears the body but keeps the headers, so a body that was already
+         * announced as gzip is compressed again from its first byte.
+         */
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            boolean compressed = stream != null && stream.gzip != null;
+            discardStream();
+            if (compressed) {
+                try {
+                    stream = new CompressingOutputStream(this, (HttpServletResponse) getResponse(), true);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+
+        // The old stream holds deflater state and buffered bytes of the discarded body
+        private void discardStream() {
+            if (stream != null) {
+                stream.discard();
+            }
+            stream = null;
+            writer = null;
+        }
+
+        void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (stream != null) {
+                stream.finish();
+            }
+        }
+    }
+
+    private class CompressingOutputStream extends ServletOutputStream {
+        private final CompressingResponse wrapper;
+        private final HttpServletResponse response;
+        private final ServletOutputStream target;
+        private final CountingOutputStream encoded;
+        private final boolean compressFromStart;
+        private ByteArrayOutputStream pending = new ByteArrayOutputStream();
+        private GzipStream gzip;
+        private boolean passThrough;
+        private long raw;
+        private long cpuNanos;
+
+        CompressingOutputStream(CompressingResponse wrapper, HttpServletResponse response, boolean compressFromStart)
+                throws IOException {
+            this.wrapper = wrapper;
+            this.response = response;
+            this.target = response.getOutputStream();
+            this.encoded = new CountingOutputStream(target);
+            this.compressFromStart = compressFromStart;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[] { (byte) b }, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            raw += length;
+            if (passThrough) {
+                target.write(buffer, offset, length);
+            } else if (gzip != null) {
+                compress(buffer, offset, length);
+            } else if (compressFromStart) {
+                pending.write(buffer, offset, length);
+                startCompression();
+            } else if (!isCompressible(wrapper.getContentType())
+                    || wrapper.containsHeader(HttpHeaders.CONTENT_ENCODING)) {
+                passThrough = true;
+                drainPending();
+                target.write(buffer, offset, length);
+            } else {
+                pending.write(buffer, offset, length);
+                if (pending.size() >= minResponseSize) {
+                    startCompression();
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            // Streamed responses flush mid-body; past the threshold this emits a gzip sync block
+            if (gzip != null) {
+                long start = cpuTime();
+                gzip.flush();
+                cpuNanos += cpuTime() - start;
+            }
+            target.flush();
+        }
+
+        void finish() throws IOException {
+            if (gzip != null) {
+                long start = cpuTime();
+                gzip.finish();
+                gzip.discard();
+                cpuNanos += cpuTime() - start;
+            } else {
+                drainPending();
+            }
+        }
+
+        // Frees the deflater without writing anything more to the response
+        void discard() {
+            if (gzip != null) {
+                gzip.discard();
+            }
+            pending = null;
+        }
+
+        private void startCompression() throws IOException {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            // A body compressed again after resetBuffer() keeps its headers
+            if (!response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            }
+            long start = cpuTime();
+            gzip = new GzipStream(encoded);
+            cpuNanos += cpuTime() - start;
+
+            byte[] buffered = pending.toByteArray();
+            pending = null;
+            compress(buffered, 0, buffered.length);
+        }
+
+        private void compress(byte[] buffer, int offset, int length) throws IOException {
+            long start = cpuTime();
+            gzip.write(buffer, offset, length);
+            cpuNanos += cpuTime() - start;
+        }
+
+        private void drainPending() throws IOException {
+            if (pending != null && pending.size() > 0) {
+                pending.writeTo(target);
+            }
+            pending = null;
+        }
+
+        @Override
+        public boolean isReady() {
+            return target.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener listener) {
+            target.setWriteListener(listener);
+        }
+    }
+
+    private static class GzipStream extends GZIPOutputStream {
+        GzipStream(OutputStream out) throws IOException {
+            super(out, 8192, true);
+        }
+
+        // close() would also write the trailer; this only releases the native deflater
+        void discard() {
+            def.end();
+        }
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private final OutputStream out;
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            count += length;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.server.taskin.config;
+
+import com.server.taskin.service.SyncSequenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Periodically collapses sync_logs to the latest row per entity and drops
+ * the snapshots of delete tombstones. Only logs older than the retention
+ * window are touched, so clients that sync regularly still receive full
+ * history; each range is compacted in its own transaction to keep locks
+ * short.
+ */
+@Component
+public class SyncLogCompactor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncLogCompactor.class);
+
+    @Value("${app.sync.compaction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.sync.compaction.retention-hours:168}")
+    private long retentionHours;
+
+    @Value("${app.sync.compaction.range-size:10000}")
+    private int rangeSize;
+
+    @Autowired
+    private SyncSequenceService syncSequenceService;
+
+    @Scheduled(initialDelayString = "${app.sync.compaction.initial-delay-ms:600000}",
+               fixedDelayString = "${app.sync.compaction.interval-ms:3600000}")
+    public void scheduledCompaction() {
+        if (!enabled) {
+            return;
+        }
+
+        try {
+            compact();
+        } catch (Exception e) {
+            logger.error("Sync log compaction failed", e);
+        }
+    }
+
+    /**
+     * Compact everything older than the retention window and return the
+     * number of removed rows.
+     */
+    public int compact() {
+        Long target = syncSequenceService.compactionTarget(LocalDateTime.now().minusHours(retentionHours));
+        if (target == null) {
+            return 0;
+        }
+
+        int removed = 0;
+        int shrunk = 0;
+        while (syncSequenceService.compactionWatermark() < target) {
+            SyncSequenceService.CompactedRange range = syncSequenceService.compactNextRange(target, rangeSize);
+            removed += range.getRemoved();
+            shrunk += range.getShrunk();
+        }
+        if (removed > 0 || shrunk > 0) {
+            logger.info("Compacted sync logs up to sequence {}: removed {} superseded rows, cleared {} tombstone snapshots",
+                target, removed, shrunk);
+        }
+        return removed;
+    }
+}
@@ -0,0 +1,64 @@
+package com.server.taskin.config;
+
+import com.server.taskin.service.DeltaSyncService;
+import com.server.taskin.service.SyncSequenceService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Brings sync_logs derived data up to date on startup. Every step is
+ * idempotent and only touches rows that still need it.
+ */
+@Component
+public class SyncLogMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(SyncLogMigrationRunner.class);
+
+    private static final int BACKFILL_PAGE_SIZE = 1000;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private SyncSequenceService syncSequenceService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int sequenced = 0;
+        int page;
+        while ((page = syncSequenceService.backfillSequences(BACKFILL_PAGE_SIZE)) > 0) {
+            sequenced += page;
+        }
+        if (sequenced > 0) {
+            logger.info("Assigned sequence numbers to {} sync logs", sequenced);
+        }
+
+        int filled = 0;
+        while ((page = deltaSyncService.backfillSnapshotColumns(BACKFILL_PAGE_SIZE)) > 0) {
+            filled += page;
+        }
+        if (filled > 0) {
+            logger.info("Backfilled version columns for {} sync logs", filled);
+        }
+
+        // Heads read versions from the columns filled above
+        int heads = deltaSyncService.backfillEntityHeads();
+        if (heads > 0) {
+            logger.info("Backfilled {} entity heads from sync_logs", heads);
+        }
+
+        int owners = deltaSyncService.backfillHeadOwners();
+        if (owners > 0) {
+            logger.info("Backfilled owners of {} entity heads", owners);
+        }
+
+        int feedHeads = deltaSyncService.backfillFeedHeads();
+        if (feedHeads > 0) {
+            logger.info("Backfilled {} feed heads from sync_logs", feedHeads);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.server.taskin.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.server.taskin.util.EmbeddedJson;
+import com.server.taskin.util.SyncProtocol;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+
+/**
+ * The application JSON converter, aware of the sync protocol version. For
+ * requests sending {@code X-Sync-Protocol: 2} snapshot fields are written as
+ * raw JSON values, and the header is echoed so clients know which form they
+ * received.
+ */
+public class SyncProtocolMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public SyncProtocolMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, JavaType javaType, MediaType contentType) {
+        if (SyncProtocol.currentRequestEmbedsSnapshots()) {
+            writer = writer.withAttribute(EmbeddedJson.RAW_JSON_ATTRIBUTE, Boolean.TRUE);
+        }
+        return super.customizeWriter(writer, javaType, contentType);
+    }
+
+    @Override
+    protected void addDefaultHeaders(HttpHeaders headers, Object body, MediaType contentType) throws IOException {
+        super.addDefaultHeaders(headers, body, contentType);
+        if (SyncProtocol.currentRequestEmbedsSnapshots()) {
+            headers.set(SyncProtocol.HEADER, String.valueOf(SyncProtocol.EMBEDDED_SNAPSHOTS));
+        }
+    }
+}
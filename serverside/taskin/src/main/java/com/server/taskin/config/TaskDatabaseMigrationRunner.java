@@ -0,0 +1,36 @@
+package com.server.taskin.config;
+
+import com.server.taskin.service.TaskDatabaseStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Moves task databases out of the legacy users.task_database column on
+ * startup. Idempotent; once every row is moved it only checks the schema.
+ */
+@Component
+public class TaskDatabaseMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskDatabaseMigrationRunner.class);
+
+    private static final int MIGRATION_PAGE_SIZE = 100;
+
+    @Autowired
+    private TaskDatabaseStore taskDatabaseStore;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        int moved = 0;
+        int page;
+        while ((page = taskDatabaseStore.migrateLegacyColumn(MIGRATION_PAGE_SIZE)) > 0) {
+            moved += page;
+        }
+        if (moved > 0) {
+            logger.info("Moved {} task databases to task_databases", moved);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.server.taskin.config;
+
+import com.server.taskin.service.UserService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lowercases emails stored before they were normalized, so the unique
+ * email index is case-insensitive for every row, then adds the lower(email)
+ * index. Tracked in applied_migrations; once done it only checks the marker.
+ */
+@Component
+public class UserEmailMigrationRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserEmailMigrationRunner.class);
+
+    @Autowired
+    private UserService userService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int normalized = userService.normalizeStoredEmails();
+        if (normalized > 0) {
+            logger.info("Normalized {} user emails to lowercase", normalized);
+        }
+        userService.ensureCaseInsensitiveEmailIndex();
+    }
+}
@@ -0,0 +1,68 @@
+package com.server.taskin.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Binary alternatives to JSON for the sync payloads. Clients opt in with
+ * Content-Type / Accept {@code application/x-jackson-smile} or
+ * {@code application/cbor}; the converters share the configuration of the
+ * application ObjectMapper through {@link JsonCodecs}.
+ */
+@Configuration
+public class WireFormatConfig implements WebMvcConfigurer {
+
+    public static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    public static final MediaType CBOR = MediaType.APPLICATION_CBOR;
+
+    @Autowired
+    private JsonCodecs jsonCodecs;
+
+    /**
+     * Format for endpoints that stream their response instead of going
+     * through the converters: the first of JSON, Smile or CBOR listed in the
+     * Accept header, JSON when none is.
+     */
+    public static MediaType preferredFormat(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return MediaType.APPLICATION_JSON;
+                }
+                if (type.equalsTypeAndSubtype(SMILE) || type.equalsTypeAndSubtype(CBOR)) {
+                    return new MediaType(type.getType(), type.getSubtype());
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Fall through to JSON
+        }
+        return MediaType.APPLICATION_JSON;
+    }
+
+    // Replaces the default JSON converter
+    @Bean
+    public MappingJackson2HttpMessageConverter mappingJackson2HttpMessageConverter(ObjectMapper objectMapper) {
+        return new SyncProtocolMessageConverter(objectMapper);
+    }
+
+    // Appended after the JSON converter, so Accept */* keeps getting JSON
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MappingJackson2SmileHttpMessageConverter(jsonCodecs.smile()));
+        converters.add(new MappingJackson2CborHttpMessageConverter(jsonCodecs.cbor()));
+    }
+}
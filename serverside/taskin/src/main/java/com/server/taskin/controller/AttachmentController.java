@@ -1,8 +1,8 @@
 package com.server.taskin.controller;
 
 import com.server.taskin.model.Attachment;
-import com.server.taskin.model.User;
 import com.server.taskin.repository.AttachmentRepository;
+import com.server.taskin.security.AuthenticatedUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -57,7 +57,7 @@ public class AttachmentController {
             Authentication authentication) {
 
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
             if (file.isEmpty()) {
                 return ResponseEntity.badRequest().body(new ErrorResponse("Arquivo está vazio"));
@@ -118,7 +118,7 @@ public class AttachmentController {
             Authentication authentication) {
 
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
             if (linkRequest.getUrl() == null || linkRequest.getUrl().isBlank()) {
                 return ResponseEntity.badRequest().body(new ErrorResponse("URL é obrigatória"));
@@ -218,7 +218,7 @@ public class AttachmentController {
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteAttachment(@PathVariable String id, Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
             Attachment attachment = attachmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Anexo não encontrado"));
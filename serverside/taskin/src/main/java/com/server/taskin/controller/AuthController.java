@@ -6,6 +6,9 @@ import com.server.taskin.dto.RegisterRequest;
 import com.server.taskin.dto.UpdateUserRequest;
 import com.server.taskin.dto.ChangePasswordRequest;
 import com.server.taskin.model.User;
+import com.server.taskin.security.AuthenticatedUser;
+import com.server.taskin.security.BoundedPasswordEncoder;
+import com.server.taskin.security.VerifiedToken;
 import com.server.taskin.service.AuthService;
 import com.server.taskin.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -18,6 +21,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 @RestController
@@ -36,13 +40,18 @@ public class AuthController {
         @ApiResponse(responseCode = "200", description = "Login realizado com sucesso",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = AuthResponse.class))),
         @ApiResponse(responseCode = "400", description = "Credenciais inválidas",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Servidor ocupado com outras autenticações; tente novamente após o tempo em Retry-After",
+                content = @Content(mediaType = "application/json"))
     })
     @PostMapping("/login")
     public ResponseEntity<?> login(@Valid @RequestBody LoginRequest loginRequest) {
         try {
             AuthResponse authResponse = authService.login(loginRequest);
             return ResponseEntity.ok(authResponse);
+        } catch (BoundedPasswordEncoder.HashingBusyException e) {
+            // Answered by GlobalExceptionHandler with 503 and Retry-After
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(new ErrorResponse("Erro no login: " + e.getMessage()));
@@ -54,13 +63,18 @@ public class AuthController {
         @ApiResponse(responseCode = "200", description = "Usuário registrado com sucesso",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = AuthResponse.class))),
         @ApiResponse(responseCode = "400", description = "Dados inválidos ou email já em uso",
-                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class)))
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))),
+        @ApiResponse(responseCode = "503", description = "Servidor ocupado com outras autenticações; tente novamente após o tempo em Retry-After",
+                content = @Content(mediaType = "application/json"))
     })
     @PostMapping("/register")
     public ResponseEntity<?> register(@Valid @RequestBody RegisterRequest registerRequest) {
         try {
             AuthResponse authResponse = authService.register(registerRequest);
             return ResponseEntity.ok(authResponse);
+        } catch (BoundedPasswordEncoder.HashingBusyException e) {
+            // Answered by GlobalExceptionHandler with 503 and Retry-After
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(new ErrorResponse("Erro no registro: " + e.getMessage()));
@@ -79,11 +93,10 @@ public class AuthController {
         try {
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String token = authHeader.substring(7);
-                boolean isValid = authService.validateToken(token);
+                VerifiedToken verified = authService.verifyToken(token);
 
-                if (isValid) {
-                    String username = authService.getUsernameFromToken(token);
-                    return ResponseEntity.ok(new TokenValidationResponse(true, username));
+                if (verified != null) {
+                    return ResponseEntity.ok(new TokenValidationResponse(true, verified.getSubject()));
                 } else {
                     return ResponseEntity.ok(new TokenValidationResponse(false, null));
                 }
@@ -143,40 +156,25 @@ public class AuthController {
     })
     @PutMapping("/update-profile")
     public ResponseEntity<?> updateProfile(@Valid @RequestBody UpdateUserRequest updateRequest,
-                                          @RequestHeader("Authorization") String authHeader) {
+                                          Authentication authentication) {
         try {
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-
-                // Validate token first
-                if (!authService.validateToken(token)) {
-                    return ResponseEntity.status(401)
-                        .body(new ErrorResponse("Token inválido"));
-                }
-
-                // Get username from token and find user
-                String email = authService.getUsernameFromToken(token);
-                User currentUser = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
-
-                // Update user
-                User updatedUser = userService.updateUser(
-                    currentUser.getId(),
-                    updateRequest.getName(),
-                    updateRequest.getEmail()
-                );
-
-                return ResponseEntity.ok(new UserResponse(
-                    updatedUser.getId(),
-                    updatedUser.getEmail(),
-                    updatedUser.getName(),
-                    updatedUser.getCreatedAt(),
-                    updatedUser.getUpdatedAt()
-                ));
-            }
-
-            return ResponseEntity.badRequest()
-                .body(new ErrorResponse("Header Authorization inválido"));
+            // The token was verified once by JwtAuthFilter
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
+
+            // Update user
+            User updatedUser = userService.updateUser(
+                currentUser.getId(),
+                updateRequest.getName(),
+                updateRequest.getEmail()
+            );
+
+            return ResponseEntity.ok(new UserResponse(
+                updatedUser.getId(),
+                updatedUser.getEmail(),
+                updatedUser.getName(),
+                updatedUser.getCreatedAt(),
+                updatedUser.getUpdatedAt()
+            ));
 
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -230,41 +228,29 @@ public class AuthController {
     })
     @PutMapping("/change-password")
     public ResponseEntity<?> changePassword(@Valid @RequestBody ChangePasswordRequest changePasswordRequest,
-                                           @RequestHeader("Authorization") String authHeader) {
+                                           Authentication authentication) {
         try {
-            if (authHeader != null && authHeader.startsWith("Bearer ")) {
-                String token = authHeader.substring(7);
-
-                // Validate token first
-                if (!authService.validateToken(token)) {
-                    return ResponseEntity.status(401)
-                        .body(new ErrorResponse("Token inválido"));
-                }
-
-                // Validate password confirmation
-                if (!changePasswordRequest.getNewPassword().equals(changePasswordRequest.getConfirmPassword())) {
-                    return ResponseEntity.badRequest()
-                        .body(new ErrorResponse("Confirmação de senha não confere"));
-                }
-
-                // Get username from token and find user
-                String email = authService.getUsernameFromToken(token);
-                User currentUser = userService.findByEmail(email)
-                    .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
+            // Validate password confirmation
+            if (!changePasswordRequest.getNewPassword().equals(changePasswordRequest.getConfirmPassword())) {
+                return ResponseEntity.badRequest()
+                    .body(new ErrorResponse("Confirmação de senha não confere"));
+            }
 
-                // Change password
-                userService.changePassword(
-                    currentUser.getId(),
-                    changePasswordRequest.getCurrentPassword(),
-                    changePasswordRequest.getNewPassword()
-                );
+            // The token was verified once by JwtAuthFilter
+            AuthenticatedUser currentUser = (AuthenticatedUser) authentication.getPrincipal();
 
-                return ResponseEntity.ok(new SuccessResponse("Senha alterada com sucesso"));
-            }
+            // Change password
+            userService.changePassword(
+                currentUser.getId(),
+                changePasswordRequest.getCurrentPassword(),
+                changePasswordRequest.getNewPassword()
+            );
 
-            return ResponseEntity.badRequest()
-                .body(new ErrorResponse("Header Authorization inválido"));
+            return ResponseEntity.ok(new SuccessResponse("Senha alterada com sucesso"));
 
+        } catch (BoundedPasswordEncoder.HashingBusyException e) {
+            // Answered by GlobalExceptionHandler with 503 and Retry-After
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                 .body(new ErrorResponse("Erro ao alterar senha: " + e.getMessage()));
@@ -2,8 +2,14 @@ package com.server.taskin.controller;
 
 import com.server.taskin.dto.DeltaSyncRequest;
 import com.server.taskin.dto.DeltaSyncResponse;
-import com.server.taskin.model.User;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.security.AuthenticatedUser;
 import com.server.taskin.service.DeltaSyncService;
+import com.server.taskin.service.SyncBatchDeduplicator;
+import com.server.taskin.service.SyncEventHub;
+import com.server.taskin.service.TeamService;
+import com.server.taskin.util.SyncCursor;
+import com.server.taskin.util.SyncProtocol;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -11,13 +17,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,13 +44,23 @@ public class DeltaSyncController {
     @Autowired
     private DeltaSyncService deltaSyncService;
 
-    @Operation(summary = "Sincronização delta", description = "Sincroniza mudanças incrementais entre cliente e servidor")
+    @Autowired
+    private SyncBatchDeduplicator syncBatchDeduplicator;
+
+    @Autowired
+    private SyncEventHub syncEventHub;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Operation(summary = "Sincronização delta", description = "Sincroniza mudanças incrementais entre cliente e servidor. Reenvios com o mesmo batchId recebem a resposta original sem reaplicar as mudanças. Com o header X-Sync-Protocol: 2 os snapshots (data, serverData, localData) vêm como objetos JSON em vez de strings")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Sincronização realizada com sucesso",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = DeltaSyncResponse.class))),
         @ApiResponse(responseCode = "400", description = "Dados inválidos",
                 content = @Content(mediaType = "application/json")),
         @ApiResponse(responseCode = "401", description = "Não autorizado"),
+        @ApiResponse(responseCode = "409", description = "batchId já utilizado para outras mudanças"),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor")
     })
     @PostMapping
@@ -45,9 +69,20 @@ public class DeltaSyncController {
             Authentication authentication) {
 
         try {
-            User user = (User) authentication.getPrincipal();
-            DeltaSyncResponse response = deltaSyncService.processDeltaSync(request, user.getId());
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            DeltaSyncResponse response = syncBatchDeduplicator.process(request, user.getId());
             return ResponseEntity.ok(response);
+        } catch (TaskinException e) {
+            DeltaSyncResponse errorResponse = new DeltaSyncResponse(
+                null,
+                null,
+                LocalDateTime.now(),
+                false,
+                e.getMessage()
+            );
+            HttpStatus status = SyncBatchDeduplicator.BATCH_ID_REUSED.equals(e.getCode())
+                ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(errorResponse);
         } catch (Exception e) {
             DeltaSyncResponse errorResponse = new DeltaSyncResponse(
                 null,
@@ -60,19 +95,114 @@ public class DeltaSyncController {
         }
     }
 
-    @Operation(summary = "Obter mudanças desde", description = "Obtém todas as mudanças desde um timestamp específico")
+    @Operation(summary = "Obter mudanças desde", description = "Obtém uma página de mudanças após o cursor informado (ou desde um timestamp, sem cursor)")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Mudanças retornadas com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Nenhuma mudança desde o ETag informado em If-None-Match (apenas com cursor)"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
         @ApiResponse(responseCode = "401", description = "Não autorizado")
     })
     @GetMapping("/changes")
-    public ResponseEntity<List<DeltaSyncResponse.SyncChange>> getChangesSince(
+    public ResponseEntity<DeltaSyncResponse.ChangeFeedPage> getChangesSince(
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
-            Authentication authentication) {
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            Authentication authentication,
+            WebRequest webRequest) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (cursor != null && webRequest.checkNotModified(feedETag(user, "changes", cursor, limit, webRequest))) {
+            return null;
+        }
         LocalDateTime sinceTime = since != null ? since : LocalDateTime.now().minusDays(7);
-        List<DeltaSyncResponse.SyncChange> changes = deltaSyncService.getChangesSince(user.getId(), sinceTime);
-        return ResponseEntity.ok(changes);
+        DeltaSyncResponse.ChangeFeedPage page = deltaSyncService.getChangesSince(user.getId(), cursor, sinceTime, limit);
+        return ResponseEntity.ok(page);
+    }
+
+    @Operation(summary = "Transmitir mudanças desde", description = "Transmite as mudanças após o cursor informado diretamente na resposta, sem montar a lista completa em memória. Sem limite, retorna todo o restante do feed")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Mudanças transmitidas com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Nenhuma mudança desde o ETag informado em If-None-Match (apenas com cursor)"),
+        @ApiResponse(responseCode = "400", description = "Cursor inválido"),
+        @ApiResponse(responseCode = "401", description = "Não autorizado")
+    })
+    @GetMapping(value = "/changes", params = "stream=true")
+    public void streamChangesSince(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit,
+            @RequestHeader(value = SyncProtocol.HEADER, required = false) String protocol,
+            Authentication authentication,
+            WebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (cursor != null && webRequest.checkNotModified(feedETag(user, "stream", cursor, limit, webRequest))) {
+            return;
+        }
+        LocalDateTime sinceTime = since != null ? since : LocalDateTime.now().minusDays(7);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        boolean embedSnapshots = SyncProtocol.embedsSnapshots(protocol);
+        if (embedSnapshots) {
+            response.setHeader(SyncProtocol.HEADER, String.valueOf(SyncProtocol.EMBEDDED_SNAPSHOTS));
+        }
+        deltaSyncService.streamChangesSince(user.getId(), cursor, sinceTime, limit, embedSnapshots,
+            response.getOutputStream());
+    }
+
+    @Operation(summary = "Estado inicial", description = "Transmite o estado atual de todas as entidades visíveis ao usuário, uma mudança por entidade, lido da tabela de estado em vez do histórico. Use o nextCursor retornado nas sincronizações seguintes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Estado transmitido com sucesso"),
+        @ApiResponse(responseCode = "304", description = "Nenhuma mudança desde o ETag informado em If-None-Match"),
+        @ApiResponse(responseCode = "401", description = "Não autorizado")
+    })
+    @GetMapping("/bootstrap")
+    public void streamBootstrap(
+            @RequestHeader(value = SyncProtocol.HEADER, required = false) String protocol,
+            Authentication authentication,
+            WebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        if (webRequest.checkNotModified(feedETag(user, "bootstrap", null, null, webRequest))) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        boolean embedSnapshots = SyncProtocol.embedsSnapshots(protocol);
+        if (embedSnapshots) {
+            response.setHeader(SyncProtocol.HEADER, String.valueOf(SyncProtocol.EMBEDDED_SNAPSHOTS));
+        }
+        deltaSyncService.streamBootstrap(user.getId(), embedSnapshots, response.getOutputStream());
+    }
+
+    @Operation(summary = "Canal de notificações", description = "Mantém uma conexão SSE aberta e envia um evento 'changes' com o cursor mais recente sempre que houver novas mudanças para o usuário ou suas equipes")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Canal aberto com sucesso"),
+        @ApiResponse(responseCode = "401", description = "Não autorizado")
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        // Team claims of a current token spare the membership query
+        List<String> teamIds = user.getTeamIds() != null ? user.getTeamIds() : teamService.getUserTeamIds(user.getId());
+        return syncEventHub.subscribe(user.getId(), teamIds);
+    }
+
+    /**
+     * ETag of one view of the feed: the feed state plus everything else
+     * that shapes the body (endpoint, cursor position, page size, protocol
+     * and Accept). Views without a cursor start at a moving default
+     * {@code since}, so callers only tag those with a fixed start.
+     */
+    private String feedETag(AuthenticatedUser user, String endpoint, String cursor, Integer limit, WebRequest webRequest) {
+        String accept = webRequest.getHeader(HttpHeaders.ACCEPT);
+        return deltaSyncService.getFeedETag(user.getId())
+            + "-" + endpoint
+            + "-" + (cursor != null ? SyncCursor.decode(cursor) : "start")
+            + "-" + (limit != null ? limit : "default")
+            + "-p" + SyncProtocol.requested(webRequest.getHeader(SyncProtocol.HEADER))
+            + "-" + (accept != null ? Integer.toHexString(accept.hashCode()) : "any");
     }
 }
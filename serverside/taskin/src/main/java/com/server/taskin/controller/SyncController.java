@@ -1,8 +1,14 @@
 package com.server.taskin.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.taskin.config.WireFormatConfig;
+import com.server.taskin.dto.ChunkedUploadRequest;
+import com.server.taskin.dto.ChunkedUploadResponse;
 import com.server.taskin.dto.SyncRequest;
 import com.server.taskin.dto.SyncResponse;
-import com.server.taskin.model.User;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.security.AuthenticatedUser;
 import com.server.taskin.service.SyncService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,11 +17,21 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/sync")
@@ -23,9 +39,15 @@ import org.springframework.web.bind.annotation.*;
 @SecurityRequirement(name = "Bearer Authentication")
 public class SyncController {
 
+    private static final String JSON_PATCH_VALUE = "application/json-patch+json";
+    private static final String MERGE_PATCH_VALUE = "application/merge-patch+json";
+
     @Autowired
     private SyncService syncService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Operation(summary = "Upload do banco de dados", description = "Faz upload do banco SQLite local para o servidor")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Upload realizado com sucesso",
@@ -41,7 +63,7 @@ public class SyncController {
             Authentication authentication) {
 
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
             SyncResponse response = syncService.uploadDatabase(user.getId(), syncRequest);
 
             if (response.isSuccess()) {
@@ -56,30 +78,179 @@ public class SyncController {
         }
     }
 
-    @Operation(summary = "Download do banco de dados", description = "Faz download dos dados sincronizados do servidor")
+    @Operation(summary = "Atualização parcial do banco de dados",
+            description = "Aplica um JSON Patch (RFC 6902, application/json-patch+json) ou um Merge Patch (RFC 7396, application/merge-patch+json) ao banco armazenado. Tarefas e categorias podem ser endereçadas pelo id: '/tasks/{id}/title' no JSON Patch, ou {\"tasks\": {\"{id}\": {...}}} no Merge Patch. Envie o ETag do último download em If-Match para evitar sobrescrever alterações")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Patch aplicado com sucesso",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Patch inválido",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class))),
+        @ApiResponse(responseCode = "412", description = "O banco mudou desde o ETag informado em If-Match",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class)))
+    })
+    @PatchMapping(value = "/database", consumes = JSON_PATCH_VALUE)
+    public ResponseEntity<SyncResponse> applyJsonPatch(
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            Authentication authentication) {
+        return patchDatabase(patch, true, ifMatch, accept, authentication);
+    }
+
+    @Operation(summary = "Atualização parcial do banco de dados (Merge Patch)", description = "Variante RFC 7396 do PATCH /sync/database")
+    @PatchMapping(value = "/database", consumes = MERGE_PATCH_VALUE)
+    public ResponseEntity<SyncResponse> applyMergePatch(
+            @RequestBody JsonNode patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            Authentication authentication) {
+        return patchDatabase(patch, false, ifMatch, accept, authentication);
+    }
+
+    private ResponseEntity<SyncResponse> patchDatabase(JsonNode patch, boolean jsonPatch, String ifMatch, String accept,
+                                                       Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        try {
+            SyncResponse response = syncService.patchDatabase(user.getId(), patch, jsonPatch, ifMatch);
+            // Tag of the download the client would make next with the same Accept
+            return ResponseEntity.ok()
+                .eTag(syncService.getDownloadETag(user.getId(), WireFormatConfig.preferredFormat(accept)))
+                .body(response);
+
+        } catch (TaskinException e) {
+            HttpStatus status = "PRECONDITION_FAILED".equals(e.getCode()) ? HttpStatus.PRECONDITION_FAILED : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(SyncResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            SyncResponse errorResponse = SyncResponse.error("Erro interno do servidor: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(errorResponse);
+        }
+    }
+
+    @Operation(summary = "Blocos ausentes",
+            description = "Primeira etapa do upload em blocos: recebe a lista de hashes SHA-256 dos blocos do banco (divididos por conteúdo, veja ContentDefinedChunker) e retorna os que o servidor ainda não tem")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Lista de blocos ausentes",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ChunkedUploadResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Hash inválido")
+    })
+    @PostMapping("/chunks/missing")
+    public ResponseEntity<ChunkedUploadResponse> findMissingChunks(
+            @Valid @RequestBody ChunkedUploadRequest request,
+            Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        try {
+            return ResponseEntity.ok(ChunkedUploadResponse.missing(syncService.findMissingChunks(user.getId(), request.getChunks())));
+        } catch (TaskinException e) {
+            return ResponseEntity.badRequest().body(ChunkedUploadResponse.error(e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Enviar bloco", description = "Envia o conteúdo bruto de um bloco; o hash do caminho deve ser o SHA-256 do conteúdo")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "204", description = "Bloco armazenado"),
+        @ApiResponse(responseCode = "400", description = "Conteúdo não corresponde ao hash ou tamanho inválido")
+    })
+    @PutMapping(value = "/chunks/{hash}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<ChunkedUploadResponse> uploadChunk(
+            @PathVariable String hash,
+            @RequestBody byte[] content,
+            Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        try {
+            syncService.uploadChunk(user.getId(), hash, content);
+            return ResponseEntity.noContent().build();
+        } catch (TaskinException e) {
+            return ResponseEntity.badRequest().body(ChunkedUploadResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ChunkedUploadResponse.error("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Concluir upload em blocos",
+            description = "Substitui o banco armazenado pelo conteúdo montado a partir da lista de blocos. Responde 409 com os blocos ausentes se algum ainda não foi enviado")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Upload concluído",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ChunkedUploadResponse.class))),
+        @ApiResponse(responseCode = "400", description = "Conteúdo montado inválido"),
+        @ApiResponse(responseCode = "409", description = "Há blocos ausentes",
+                content = @Content(mediaType = "application/json", schema = @Schema(implementation = ChunkedUploadResponse.class)))
+    })
+    @PostMapping("/chunks/commit")
+    public ResponseEntity<ChunkedUploadResponse> commitChunkedUpload(
+            @Valid @RequestBody ChunkedUploadRequest request,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            Authentication authentication) {
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+        try {
+            List<String> missing = syncService.commitChunkedUpload(user.getId(), request.getChunks());
+            if (!missing.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).body(ChunkedUploadResponse.missing(missing));
+            }
+            return ResponseEntity.ok()
+                .eTag(syncService.getDownloadETag(user.getId(), WireFormatConfig.preferredFormat(accept)))
+                .body(ChunkedUploadResponse.committed(LocalDateTime.now()));
+
+        } catch (TaskinException e) {
+            return ResponseEntity.badRequest().body(ChunkedUploadResponse.error(e.getMessage()));
+        } catch (IOException e) {
+            // Validation failures of the assembled content
+            return ResponseEntity.badRequest().body(ChunkedUploadResponse.error("Erro ao fazer upload do banco: " + e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(ChunkedUploadResponse.error("Erro interno do servidor: " + e.getMessage()));
+        }
+    }
+
+    @Operation(summary = "Download do banco de dados", description = "Faz download dos dados sincronizados do servidor. Com Accept application/x-jackson-smile ou application/cbor a resposta é binária e o banco vem como objeto aninhado em vez de string. Com source=state o banco é montado a partir do estado atual das entidades sincronizadas (tasks, projects e categories) e vem sempre como objeto")
     @ApiResponses(value = {
         @ApiResponse(responseCode = "200", description = "Download realizado com sucesso",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class))),
+        @ApiResponse(responseCode = "304", description = "Os dados não mudaram desde o ETag informado em If-None-Match"),
         @ApiResponse(responseCode = "400", description = "Erro na requisição",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class))),
         @ApiResponse(responseCode = "500", description = "Erro interno do servidor",
                 content = @Content(mediaType = "application/json", schema = @Schema(implementation = SyncResponse.class)))
     })
     @GetMapping("/download")
-    public ResponseEntity<SyncResponse> downloadDatabase(Authentication authentication) {
+    public void downloadDatabase(Authentication authentication, WebRequest webRequest,
+                                 @RequestParam(defaultValue = "blob") String source,
+                                 HttpServletResponse response) throws IOException {
         try {
-            User user = (User) authentication.getPrincipal();
-            SyncResponse response = syncService.downloadDatabase(user.getId());
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
+            boolean fromState = "state".equals(source);
+            MediaType format = WireFormatConfig.preferredFormat(webRequest.getHeader(HttpHeaders.ACCEPT));
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
 
-            if (response.isSuccess()) {
-                return ResponseEntity.ok(response);
+            // Answered from version columns, without reading the stored data; the
+            // tag names the negotiated format, so a 304 never stands for another one
+            String eTag = fromState
+                ? syncService.getStateDownloadETag(user.getId(), format)
+                : syncService.getDownloadETag(user.getId(), format);
+            if (webRequest.checkNotModified(eTag)) {
+                syncService.recordUnchangedDownload(user.getId());
+                return;
+            }
+
+            response.setContentType(format.toString());
+            if (MediaType.APPLICATION_JSON.equalsTypeAndSubtype(format)) {
+                response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            }
+            if (fromState) {
+                syncService.streamStateDownload(user.getId(), response.getOutputStream(), format);
             } else {
-                return ResponseEntity.badRequest().body(response);
+                syncService.streamDownload(user.getId(), response.getOutputStream(), format);
             }
 
         } catch (Exception e) {
-            SyncResponse errorResponse = SyncResponse.error("Erro interno do servidor: " + e.getMessage());
-            return ResponseEntity.internalServerError().body(errorResponse);
+            // Once streaming has started the status line is already sent
+            if (response.isCommitted()) {
+                throw e;
+            }
+            response.reset();
+            response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            objectMapper.writeValue(response.getOutputStream(),
+                SyncResponse.error("Erro interno do servidor: " + e.getMessage()));
         }
     }
 
@@ -93,13 +264,13 @@ public class SyncController {
     @GetMapping("/status")
     public ResponseEntity<?> getSyncStatus(Authentication authentication) {
         try {
-            User user = (User) authentication.getPrincipal();
+            AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
 
             return ResponseEntity.ok(new SyncStatusResponse(
                 user.getId(),
                 user.getEmail(),
-                user.getLastSyncAt(),
-                user.getTaskDatabase() != null
+                syncService.getLastSyncAt(user.getId()),
+                syncService.hasTaskDatabase(user.getId())
             ));
 
         } catch (Exception e) {
@@ -4,7 +4,7 @@ import com.server.taskin.dto.AddMemberRequest;
 import com.server.taskin.dto.TeamMemberResponse;
 import com.server.taskin.dto.TeamRequest;
 import com.server.taskin.dto.TeamResponse;
-import com.server.taskin.model.User;
+import com.server.taskin.security.AuthenticatedUser;
 import com.server.taskin.service.TeamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -44,7 +44,7 @@ public class TeamController {
             @Valid @RequestBody TeamRequest request,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         TeamResponse response = teamService.createTeam(request, user.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -56,7 +56,7 @@ public class TeamController {
     })
     @GetMapping
     public ResponseEntity<List<TeamResponse>> getUserTeams(Authentication authentication) {
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         List<TeamResponse> teams = teamService.getUserTeams(user.getId());
         return ResponseEntity.ok(teams);
     }
@@ -73,7 +73,7 @@ public class TeamController {
             @PathVariable String id,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         TeamResponse response = teamService.getTeam(id, user.getId());
         return ResponseEntity.ok(response);
     }
@@ -90,7 +90,7 @@ public class TeamController {
             @Valid @RequestBody TeamRequest request,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         TeamResponse response = teamService.updateTeam(id, request, user.getId());
         return ResponseEntity.ok(response);
     }
@@ -106,7 +106,7 @@ public class TeamController {
             @PathVariable String id,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         teamService.deleteTeam(id, user.getId());
         return ResponseEntity.noContent().build();
     }
@@ -124,7 +124,7 @@ public class TeamController {
             @Valid @RequestBody AddMemberRequest request,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         TeamMemberResponse response = teamService.addMember(id, request, user.getId());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
@@ -140,7 +140,7 @@ public class TeamController {
             @PathVariable String id,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         List<TeamMemberResponse> members = teamService.getTeamMembers(id, user.getId());
         return ResponseEntity.ok(members);
     }
@@ -158,7 +158,7 @@ public class TeamController {
             @PathVariable String userId,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         teamService.removeMember(id, userId, user.getId());
         return ResponseEntity.noContent().build();
     }
@@ -174,7 +174,7 @@ public class TeamController {
             @PathVariable String id,
             Authentication authentication) {
 
-        User user = (User) authentication.getPrincipal();
+        AuthenticatedUser user = (AuthenticatedUser) authentication.getPrincipal();
         teamService.leaveTeam(id, user.getId());
         return ResponseEntity.noContent().build();
     }
@@ -0,0 +1,24 @@
+package com.server.taskin.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class ChunkedUploadRequest {
+
+    @NotEmpty(message = "A lista de blocos é obrigatória")
+    private List<String> chunks; // Hex SHA-256 of each chunk, in content order
+
+    public ChunkedUploadRequest() {}
+
+    public ChunkedUploadRequest(List<String> chunks) {
+        this.chunks = chunks;
+    }
+
+    public List<String> getChunks() {
+        return chunks;
+    }
+
+    public void setChunks(List<String> chunks) {
+        this.chunks = chunks;
+    }
+}
@@ -0,0 +1,66 @@
+package com.server.taskin.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class ChunkedUploadResponse {
+
+    private List<String> missing; // Chunks the client still has to upload
+    private LocalDateTime lastSyncAt;
+    private String message;
+    private boolean success;
+
+    public ChunkedUploadResponse() {}
+
+    public ChunkedUploadResponse(List<String> missing, LocalDateTime lastSyncAt, String message, boolean success) {
+        this.missing = missing;
+        this.lastSyncAt = lastSyncAt;
+        this.message = message;
+        this.success = success;
+    }
+
+    public static ChunkedUploadResponse missing(List<String> missing) {
+        return new ChunkedUploadResponse(missing, null,
+            missing.isEmpty() ? "Todos os blocos já estão no servidor" : "Envie os blocos ausentes", missing.isEmpty());
+    }
+
+    public static ChunkedUploadResponse committed(LocalDateTime lastSyncAt) {
+        return new ChunkedUploadResponse(List.of(), lastSyncAt, "Sincronização realizada com sucesso", true);
+    }
+
+    public static ChunkedUploadResponse error(String message) {
+        return new ChunkedUploadResponse(null, null, message, false);
+    }
+
+    public List<String> getMissing() {
+        return missing;
+    }
+
+    public void setMissing(List<String> missing) {
+        this.missing = missing;
+    }
+
+    public LocalDateTime getLastSyncAt() {
+        return lastSyncAt;
+    }
+
+    public void setLastSyncAt(LocalDateTime lastSyncAt) {
+        this.lastSyncAt = lastSyncAt;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+}
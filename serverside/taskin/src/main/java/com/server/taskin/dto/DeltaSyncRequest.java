@@ -1,5 +1,8 @@
 package com.server.taskin.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.server.taskin.util.EmbeddedJson;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -7,6 +10,9 @@ public class DeltaSyncRequest {
 
     private List<SyncChange> changes;
     private LocalDateTime lastSyncAt;
+    private String cursor; // Opaque feed position returned as nextCursor by the previous sync
+    private Integer limit; // Maximum number of server changes to return
+    private String batchId; // Client-generated id, reused when the same batch is retried
 
     public DeltaSyncRequest() {}
 
@@ -31,10 +37,36 @@ public class DeltaSyncRequest {
         this.lastSyncAt = lastSyncAt;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    public Integer getLimit() {
+        return limit;
+    }
+
+    public void setLimit(Integer limit) {
+        this.limit = limit;
+    }
+
+    public String getBatchId() {
+        return batchId;
+    }
+
+    public void setBatchId(String batchId) {
+        this.batchId = batchId;
+    }
+
     public static class SyncChange {
         private String entityType; // "task", "project", "category"
         private String entityId;
         private String action; // "create", "update", "delete"
+        @JsonSerialize(using = EmbeddedJson.Serializer.class)
+        @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
         private String data; // JSON string
         private LocalDateTime timestamp;
         private int version;
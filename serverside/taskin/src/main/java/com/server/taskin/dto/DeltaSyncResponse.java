@@ -1,5 +1,8 @@
 package com.server.taskin.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.server.taskin.util.EmbeddedJson;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -11,6 +14,9 @@ public class DeltaSyncResponse {
     private LocalDateTime lastSyncAt;
     private boolean success;
     private String message;
+    private String nextCursor;
+    private boolean hasMore;
+    private boolean compacted; // true when history older than the cursor was collapsed to latest states
 
     public DeltaSyncResponse() {}
 
@@ -63,10 +69,85 @@ public class DeltaSyncResponse {
         this.message = message;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public boolean isCompacted() {
+        return compacted;
+    }
+
+    public void setCompacted(boolean compacted) {
+        this.compacted = compacted;
+    }
+
+    public static class ChangeFeedPage {
+        private List<SyncChange> changes = new ArrayList<>();
+        private String nextCursor;
+        private boolean hasMore;
+        private boolean compacted;
+
+        public ChangeFeedPage() {}
+
+        public ChangeFeedPage(List<SyncChange> changes, String nextCursor, boolean hasMore, boolean compacted) {
+            this.changes = changes;
+            this.nextCursor = nextCursor;
+            this.hasMore = hasMore;
+            this.compacted = compacted;
+        }
+
+        // Getters and Setters
+        public List<SyncChange> getChanges() {
+            return changes;
+        }
+
+        public void setChanges(List<SyncChange> changes) {
+            this.changes = changes;
+        }
+
+        public String getNextCursor() {
+            return nextCursor;
+        }
+
+        public void setNextCursor(String nextCursor) {
+            this.nextCursor = nextCursor;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+
+        public void setHasMore(boolean hasMore) {
+            this.hasMore = hasMore;
+        }
+
+        public boolean isCompacted() {
+            return compacted;
+        }
+
+        public void setCompacted(boolean compacted) {
+            this.compacted = compacted;
+        }
+    }
+
     public static class SyncChange {
         private String entityType;
         private String entityId;
         private String action;
+        @JsonSerialize(using = EmbeddedJson.Serializer.class)
+        @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
         private String data;
         private LocalDateTime timestamp;
         private int version;
@@ -137,7 +218,11 @@ public class DeltaSyncResponse {
         private String entityId;
         private int localVersion;
         private int serverVersion;
+        @JsonSerialize(using = EmbeddedJson.Serializer.class)
+        @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
         private String serverData;
+        @JsonSerialize(using = EmbeddedJson.Serializer.class)
+        @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
         private String localData;
 
         public SyncConflict() {}
@@ -1,11 +1,16 @@
 package com.server.taskin.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.server.taskin.util.EmbeddedJson;
 import jakarta.validation.constraints.NotBlank;
 import java.time.LocalDateTime;
 
 public class SyncRequest {
 
     @NotBlank(message = "Dados do banco de tarefas são obrigatórios")
+    @JsonSerialize(using = EmbeddedJson.Serializer.class)
+    @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
     private String taskDatabase;
 
     private LocalDateTime lastSyncAt;
@@ -1,9 +1,14 @@
 package com.server.taskin.dto;
 
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.server.taskin.util.EmbeddedJson;
 import java.time.LocalDateTime;
 
 public class SyncResponse {
 
+    @JsonSerialize(using = EmbeddedJson.Serializer.class)
+    @JsonDeserialize(using = EmbeddedJson.Deserializer.class)
     private String taskDatabase;
     private LocalDateTime lastSyncAt;
     private String message;
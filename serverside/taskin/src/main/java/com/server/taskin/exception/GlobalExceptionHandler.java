@@ -1,6 +1,10 @@
 package com.server.taskin.exception;
 
+import com.server.taskin.config.SyncCompressionFilter;
+import com.server.taskin.security.BoundedPasswordEncoder;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -69,6 +73,48 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleHttpMessageNotReadableException(
+            HttpMessageNotReadableException ex, WebRequest request) {
+
+        if (ex.getCause() instanceof SyncCompressionFilter.DecompressionLimitExceededException limitExceeded) {
+            return handleDecompressionLimitExceededException(limitExceeded, request);
+        }
+        return handleRuntimeException(ex, request);
+    }
+
+    @ExceptionHandler(SyncCompressionFilter.DecompressionLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDecompressionLimitExceededException(
+            SyncCompressionFilter.DecompressionLimitExceededException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Requisição muito grande",
+            ex.getMessage(),
+            HttpStatus.PAYLOAD_TOO_LARGE.value(),
+            request.getDescription(false),
+            null
+        );
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    @ExceptionHandler(BoundedPasswordEncoder.HashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handleHashingBusyException(
+            BoundedPasswordEncoder.HashingBusyException ex, WebRequest request) {
+
+        ErrorResponse errorResponse = new ErrorResponse(
+            "Serviço temporariamente indisponível",
+            ex.getMessage(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            request.getDescription(false),
+            null
+        );
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(errorResponse);
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<ErrorResponse> handleRuntimeException(
             RuntimeException ex, WebRequest request) {
@@ -0,0 +1,44 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Marks a one-off data migration as done, so startup runners skip it
+ * instead of scanning for rows that still need it.
+ */
+@Entity
+@Table(name = "applied_migrations")
+public class AppliedMigration {
+
+    @Id
+    private String name;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+
+    public AppliedMigration() {}
+
+    public AppliedMigration(String name, LocalDateTime appliedAt) {
+        this.name = name;
+        this.appliedAt = appliedAt;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public LocalDateTime getAppliedAt() {
+        return appliedAt;
+    }
+
+    public void setAppliedAt(LocalDateTime appliedAt) {
+        this.appliedAt = appliedAt;
+    }
+}
@@ -0,0 +1,147 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotBlank;
+
+import java.time.LocalDateTime;
+
+/**
+ * Current head of a synced entity: the latest snapshot and the highest version
+ * ever logged for it. Maintained alongside every SyncLog append so conflict
+ * checks do not need to scan the entity's history.
+ * <p>
+ * Together the heads form the materialized current state of every user and
+ * team, so first syncs read them instead of replaying the log.
+ */
+@Entity
+@Table(name = "entity_heads", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_entity_head", columnNames = {"entity_type", "entity_id"})
+}, indexes = {
+    @Index(name = "idx_entity_head_owner", columnList = "owner_id, entity_type"),
+    @Index(name = "idx_entity_head_team", columnList = "team_id, entity_type")
+})
+public class EntityHead {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private String id;
+
+    @NotBlank(message = "Tipo de entidade é obrigatório")
+    @Column(name = "entity_type", nullable = false)
+    private String entityType; // "task", "project", "category"
+
+    @NotBlank(message = "ID da entidade é obrigatório")
+    @Column(name = "entity_id", nullable = false)
+    private String entityId;
+
+    @Column(nullable = false)
+    private int version;
+
+    @Column(name = "last_action")
+    private String lastAction; // "create", "update", "delete"
+
+    @Column(name = "team_id")
+    private String teamId;
+
+    @Column(name = "owner_id")
+    private String ownerId; // User whose log created the entity
+
+    @Column(name = "data_snapshot", columnDefinition = "TEXT")
+    private String dataSnapshot; // JSON snapshot of the latest logged state
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public EntityHead() {}
+
+    public EntityHead(String entityType, String entityId) {
+        this.entityType = entityType;
+        this.entityId = entityId;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Advance the head with a newly logged change. The version only moves
+     * forward, while the snapshot always tracks the most recent append.
+     */
+    public void apply(String action, int version, String teamId, String dataSnapshot) {
+        this.version = Math.max(this.version, version);
+        this.lastAction = action;
+        this.teamId = teamId;
+        this.dataSnapshot = dataSnapshot;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public void setEntityType(String entityType) {
+        this.entityType = entityType;
+    }
+
+    public String getEntityId() {
+        return entityId;
+    }
+
+    public void setEntityId(String entityId) {
+        this.entityId = entityId;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public String getLastAction() {
+        return lastAction;
+    }
+
+    public void setLastAction(String lastAction) {
+        this.lastAction = lastAction;
+    }
+
+    public String getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(String ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getTeamId() {
+        return teamId;
+    }
+
+    public void setTeamId(String teamId) {
+        this.teamId = teamId;
+    }
+
+    public String getDataSnapshot() {
+        return dataSnapshot;
+    }
+
+    public void setDataSnapshot(String dataSnapshot) {
+        this.dataSnapshot = dataSnapshot;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,51 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Highest sync sequence logged in one feed scope, either a user's own writes
+ * ("user:&lt;id&gt;") or a team's ("team:&lt;id&gt;"). Lets a user's feed high-water
+ * mark be read from a handful of rows instead of the log itself.
+ */
+@Entity
+@Table(name = "feed_heads")
+public class FeedHead {
+
+    @Id
+    private String scope;
+
+    @Column(name = "last_sequence", nullable = false)
+    private long lastSequence;
+
+    public FeedHead() {}
+
+    public FeedHead(String scope, long lastSequence) {
+        this.scope = scope;
+        this.lastSequence = lastSequence;
+    }
+
+    public static String userScope(String userId) {
+        return "user:" + userId;
+    }
+
+    public static String teamScope(String teamId) {
+        return "team:" + teamId;
+    }
+
+    // Getters and Setters
+    public String getScope() {
+        return scope;
+    }
+
+    public void setScope(String scope) {
+        this.scope = scope;
+    }
+
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public void setLastSequence(long lastSequence) {
+        this.lastSequence = lastSequence;
+    }
+}
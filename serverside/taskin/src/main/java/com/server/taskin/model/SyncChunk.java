@@ -0,0 +1,114 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * One content-addressed piece of a user's chunked task database. Chunks are
+ * scoped per user, so whether a hash is stored reveals nothing about other
+ * accounts, and shared by every manifest of that user that lists them.
+ */
+@Entity
+@Table(name = "sync_chunks", indexes = {
+    @Index(name = "idx_chunk_user_hash", columnList = "user_id, hash", unique = true)
+})
+public class SyncChunk {
+
+    @Id
+    private String id; // "<userId>:<hash>"
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(nullable = false, length = 64)
+    private String hash; // Hex SHA-256 of the decoded bytes
+
+    @Column(nullable = false, length = 20)
+    private String codec;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+    @Column(nullable = false)
+    private byte[] content;
+
+    @Column(name = "raw_size", nullable = false)
+    private int rawSize;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public SyncChunk() {}
+
+    public SyncChunk(String userId, String hash, String codec, byte[] content, int rawSize) {
+        this.id = idOf(userId, hash);
+        this.userId = userId;
+        this.hash = hash;
+        this.codec = codec;
+        this.content = content;
+        this.rawSize = rawSize;
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public static String idOf(String userId, String hash) {
+        return userId + ":" + hash;
+    }
+
+    // Getters and Setters
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public int getRawSize() {
+        return rawSize;
+    }
+
+    public void setRawSize(int rawSize) {
+        this.rawSize = rawSize;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
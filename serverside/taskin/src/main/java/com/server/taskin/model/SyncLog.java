@@ -8,7 +8,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "sync_logs", indexes = {
     @Index(name = "idx_sync_user_timestamp", columnList = "user_id,timestamp"),
-    @Index(name = "idx_sync_entity", columnList = "entity_type,entity_id")
+    @Index(name = "idx_sync_entity", columnList = "entity_type,entity_id"),
+    @Index(name = "idx_sync_sequence", columnList = "sequence_number", unique = true),
+    @Index(name = "idx_sync_user_sequence", columnList = "user_id,sequence_number"),
+    @Index(name = "idx_sync_team_sequence", columnList = "team_id,sequence_number"),
+    @Index(name = "idx_sync_entity_version", columnList = "entity_type,entity_id,version")
 })
 public class SyncLog {
 
@@ -38,6 +42,15 @@ public class SyncLog {
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
 
+    @Column(name = "sequence_number")
+    private Long sequence; // Monotonic, commit-ordered position in the change feed
+
+    @Column(name = "version")
+    private Integer version; // Entity version carried by the snapshot, null until backfilled
+
+    @Column(name = "entity_updated_at")
+    private LocalDateTime entityUpdatedAt; // Client-side updatedAt carried by the snapshot
+
     @Column(name = "data_snapshot", columnDefinition = "TEXT")
     private String dataSnapshot; // JSON snapshot of the entity at this point
 
@@ -115,6 +128,30 @@ public class SyncLog {
         this.timestamp = timestamp;
     }
 
+    public Long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(Long sequence) {
+        this.sequence = sequence;
+    }
+
+    public Integer getVersion() {
+        return version;
+    }
+
+    public void setVersion(Integer version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getEntityUpdatedAt() {
+        return entityUpdatedAt;
+    }
+
+    public void setEntityUpdatedAt(LocalDateTime entityUpdatedAt) {
+        this.entityUpdatedAt = entityUpdatedAt;
+    }
+
     public String getDataSnapshot() {
         return dataSnapshot;
     }
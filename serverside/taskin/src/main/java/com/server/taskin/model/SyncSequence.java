@@ -0,0 +1,42 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+
+/**
+ * Named counter handing out sync sequence numbers. The row is locked while a
+ * transaction allocates from it, so sequence order always matches commit order.
+ */
+@Entity
+@Table(name = "sync_sequences")
+public class SyncSequence {
+
+    @Id
+    private String name;
+
+    @Column(name = "current_value", nullable = false)
+    private long currentValue;
+
+    public SyncSequence() {}
+
+    public SyncSequence(String name, long currentValue) {
+        this.name = name;
+        this.currentValue = currentValue;
+    }
+
+    // Getters and Setters
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCurrentValue() {
+        return currentValue;
+    }
+
+    public void setCurrentValue(long currentValue) {
+        this.currentValue = currentValue;
+    }
+}
@@ -0,0 +1,81 @@
+package com.server.taskin.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+/**
+ * A user's uploaded task database, kept out of the users row so that
+ * authentication and profile reads never carry it. Content is stored
+ * encoded with the named codec.
+ */
+@Entity
+@Table(name = "task_databases")
+public class TaskDatabaseBlob {
+
+    @Id
+    @Column(name = "user_id")
+    private String userId;
+
+    @Column(nullable = false, length = 20)
+    private String codec;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARBINARY)
+    @Column(nullable = false)
+    private byte[] content;
+
+    @Column(name = "raw_size", nullable = false)
+    private long rawSize; // Decoded size in bytes
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public TaskDatabaseBlob() {}
+
+    public TaskDatabaseBlob(String userId) {
+        this.userId = userId;
+    }
+
+    // Getters and Setters
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public String getCodec() {
+        return codec;
+    }
+
+    public void setCodec(String codec) {
+        this.codec = codec;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public void setContent(byte[] content) {
+        this.content = content;
+    }
+
+    public long getRawSize() {
+        return rawSize;
+    }
+
+    public void setRawSize(long rawSize) {
+        this.rawSize = rawSize;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
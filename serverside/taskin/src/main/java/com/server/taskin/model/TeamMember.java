@@ -8,6 +8,8 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "team_members", uniqueConstraints = {
     @UniqueConstraint(columnNames = {"team_id", "user_id"})
+}, indexes = {
+    @Index(name = "idx_team_member_user", columnList = "user_id, team_id")
 })
 public class TeamMember {
 
@@ -32,8 +32,14 @@ public class User implements UserDetails {
     @Size(max = 100, message = "Nome não pode ter mais de 100 caracteres")
     private String name;
 
-    @Column(name = "task_database", columnDefinition = "TEXT")
-    private String taskDatabase;
+    @Column(name = "task_database_version")
+    private Long taskDatabaseVersion; // Bumped on every upload, used as the download ETag; content lives in task_databases
+
+    @Column(name = "auth_epoch")
+    private Long authEpoch; // Bumped when identity claims in issued tokens go stale (profile, password, account)
+
+    @Column(name = "team_epoch")
+    private Long teamEpoch; // Bumped when the user's team memberships change, staling only the team claims
 
     @Column(name = "last_sync_at")
     private LocalDateTime lastSyncAt;
@@ -139,12 +145,28 @@ public class User implements UserDetails {
         this.name = name;
     }
 
-    public String getTaskDatabase() {
-        return taskDatabase;
+    public Long getTaskDatabaseVersion() {
+        return taskDatabaseVersion;
+    }
+
+    public void setTaskDatabaseVersion(Long taskDatabaseVersion) {
+        this.taskDatabaseVersion = taskDatabaseVersion;
+    }
+
+    public Long getAuthEpoch() {
+        return authEpoch;
+    }
+
+    public void setAuthEpoch(Long authEpoch) {
+        this.authEpoch = authEpoch;
+    }
+
+    public Long getTeamEpoch() {
+        return teamEpoch;
     }
 
-    public void setTaskDatabase(String taskDatabase) {
-        this.taskDatabase = taskDatabase;
+    public void setTeamEpoch(Long teamEpoch) {
+        this.teamEpoch = teamEpoch;
     }
 
     public LocalDateTime getLastSyncAt() {
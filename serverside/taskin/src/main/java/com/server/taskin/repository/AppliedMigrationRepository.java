@@ -0,0 +1,9 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.AppliedMigration;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AppliedMigrationRepository extends JpaRepository<AppliedMigration, String> {
+}
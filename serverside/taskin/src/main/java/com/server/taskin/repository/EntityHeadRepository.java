@@ -0,0 +1,70 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.EntityHead;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface EntityHeadRepository extends JpaRepository<EntityHead, String> {
+
+    @Query("SELECT h FROM EntityHead h WHERE h.entityType = :entityType AND h.entityId = :entityId")
+    Optional<EntityHead> findByEntityTypeAndEntityId(@Param("entityType") String entityType, @Param("entityId") String entityId);
+
+    @Query("SELECT h FROM EntityHead h WHERE h.entityType IN :entityTypes AND h.entityId IN :entityIds")
+    List<EntityHead> findByEntityTypeInAndEntityIdIn(
+        @Param("entityTypes") Collection<String> entityTypes,
+        @Param("entityIds") Collection<String> entityIds
+    );
+
+    /**
+     * Heads of the given entities, locked until the transaction ends and
+     * ordered by id so concurrent callers lock them in the same order.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM EntityHead h WHERE h.entityType IN :entityTypes AND h.entityId IN :entityIds " +
+           "ORDER BY h.entityId, h.entityType")
+    List<EntityHead> findForUpdate(
+        @Param("entityTypes") Collection<String> entityTypes,
+        @Param("entityIds") Collection<String> entityIds
+    );
+
+    /**
+     * Live entities visible to the user: owned ones and those of the user's
+     * teams, grouped by entity type. Must be consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM EntityHead h WHERE (h.lastAction IS NULL OR h.lastAction <> 'delete') " +
+           "AND (h.ownerId = :userId " +
+           "OR EXISTS (SELECT 1 FROM TeamMember tm WHERE tm.team.id = h.teamId AND tm.userId = :userId)) " +
+           "ORDER BY h.entityType, h.entityId")
+    Stream<EntityHead> streamVisibleHeads(@Param("userId") String userId);
+
+    /**
+     * Set missing owners to the author of each entity's oldest remaining log.
+     */
+    @Modifying
+    @Query("UPDATE EntityHead h SET h.ownerId = (SELECT sl.userId FROM SyncLog sl " +
+           "WHERE sl.entityType = h.entityType AND sl.entityId = h.entityId AND sl.sequence = " +
+           "(SELECT MIN(s2.sequence) FROM SyncLog s2 WHERE s2.entityType = h.entityType AND s2.entityId = h.entityId)) " +
+           "WHERE h.ownerId IS NULL AND EXISTS " +
+           "(SELECT 1 FROM SyncLog s3 WHERE s3.entityType = h.entityType AND s3.entityId = h.entityId)")
+    int backfillOwners();
+}
@@ -0,0 +1,28 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.FeedHead;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface FeedHeadRepository extends JpaRepository<FeedHead, String> {
+
+    /**
+     * High-water mark of everything a user's change feed can contain: their
+     * own scope plus the scopes of their teams.
+     */
+    @Query("SELECT MAX(h.lastSequence) FROM FeedHead h WHERE h.scope = :userScope OR h.scope IN " +
+           "(SELECT CONCAT('team:', tm.team.id) FROM TeamMember tm WHERE tm.userId = :userId)")
+    Long findFeedHighWater(@Param("userId") String userId, @Param("userScope") String userScope);
+
+    @Query("SELECT sl.userId, MAX(sl.sequence) FROM SyncLog sl WHERE sl.sequence IS NOT NULL GROUP BY sl.userId")
+    List<Object[]> findUserHighWatersFromLogs();
+
+    @Query("SELECT sl.teamId, MAX(sl.sequence) FROM SyncLog sl WHERE sl.sequence IS NOT NULL AND sl.teamId IS NOT NULL " +
+           "GROUP BY sl.teamId")
+    List<Object[]> findTeamHighWatersFromLogs();
+}
@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +20,8 @@ public interface SharedTaskRepository extends JpaRepository<SharedTask, String>
     @Query("SELECT st FROM SharedTask st WHERE st.taskId = :taskId AND st.teamId = :teamId")
     Optional<SharedTask> findByTaskIdAndTeamId(@Param("taskId") String taskId, @Param("teamId") String teamId);
 
+    List<SharedTask> findByTaskIdIn(Collection<String> taskIds);
+
     boolean existsByTaskIdAndTeamId(String taskId, String teamId);
 
     void deleteByTaskIdAndTeamId(String taskId, String teamId);
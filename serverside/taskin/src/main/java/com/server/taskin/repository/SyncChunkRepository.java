@@ -0,0 +1,29 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.SyncChunk;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface SyncChunkRepository extends JpaRepository<SyncChunk, String> {
+
+    @Query("SELECT c.hash FROM SyncChunk c WHERE c.userId = :userId AND c.hash IN :hashes")
+    List<String> findExistingHashes(@Param("userId") String userId, @Param("hashes") Collection<String> hashes);
+
+    @Query("SELECT c FROM SyncChunk c WHERE c.userId = :userId AND c.hash IN :hashes")
+    List<SyncChunk> findByUserIdAndHashIn(@Param("userId") String userId, @Param("hashes") Collection<String> hashes);
+
+    @Query("SELECT c.hash FROM SyncChunk c WHERE c.userId = :userId AND c.createdAt < :before")
+    List<String> findHashesCreatedBefore(@Param("userId") String userId, @Param("before") LocalDateTime before);
+
+    @Modifying
+    @Query("DELETE FROM SyncChunk c WHERE c.userId = :userId AND c.hash IN :hashes")
+    int deleteByUserIdAndHashIn(@Param("userId") String userId, @Param("hashes") Collection<String> hashes);
+}
@@ -1,13 +1,21 @@
 package com.server.taskin.repository;
 
 import com.server.taskin.model.SyncLog;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface SyncLogRepository extends JpaRepository<SyncLog, String> {
@@ -16,13 +24,111 @@ public interface SyncLogRepository extends JpaRepository<SyncLog, String> {
 
     List<SyncLog> findByTeamIdAndTimestampAfter(String teamId, LocalDateTime timestamp);
 
-    @Query("SELECT sl FROM SyncLog sl WHERE (sl.userId = :userId OR sl.teamId IN :teamIds) AND sl.timestamp > :timestamp ORDER BY sl.timestamp ASC")
-    List<SyncLog> findChangesSinceTimestamp(
+    /**
+     * The user's own changes, a range scan on (user_id, sequence_number).
+     * Merged with findTeamChangesByOthersAfterSequence to build the full
+     * feed; the two halves never overlap.
+     */
+    @Query("SELECT sl FROM SyncLog sl WHERE sl.userId = :userId AND sl.sequence > :afterSequence " +
+           "ORDER BY sl.sequence ASC")
+    List<SyncLog> findOwnChangesAfterSequence(
         @Param("userId") String userId,
-        @Param("teamIds") List<String> teamIds,
-        @Param("timestamp") LocalDateTime timestamp
+        @Param("afterSequence") long afterSequence,
+        Pageable pageable
+    );
+
+    /**
+     * Changes other members made in the user's teams. Driven from the user's
+     * team_members rows, so each team is a range scan on (team_id,
+     * sequence_number) instead of a membership probe per log row. On its own
+     * this is the delta sync feed, which never echoes a client's own writes.
+     */
+    @Query("SELECT sl FROM SyncLog sl JOIN TeamMember tm ON tm.team.id = sl.teamId " +
+           "WHERE tm.userId = :userId AND sl.userId <> :userId AND sl.sequence > :afterSequence " +
+           "ORDER BY sl.sequence ASC")
+    List<SyncLog> findTeamChangesByOthersAfterSequence(
+        @Param("userId") String userId,
+        @Param("afterSequence") long afterSequence,
+        Pageable pageable
+    );
+
+    /**
+     * Cursor-backed variant of findOwnChangesAfterSequence. Must be consumed
+     * inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT sl FROM SyncLog sl WHERE sl.userId = :userId AND sl.sequence > :afterSequence " +
+           "ORDER BY sl.sequence ASC")
+    Stream<SyncLog> streamOwnChangesAfterSequence(
+        @Param("userId") String userId,
+        @Param("afterSequence") long afterSequence
+    );
+
+    /**
+     * Cursor-backed variant of findTeamChangesByOthersAfterSequence. Must be
+     * consumed inside a transaction.
+     */
+    @QueryHints({
+        @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT sl FROM SyncLog sl JOIN TeamMember tm ON tm.team.id = sl.teamId " +
+           "WHERE tm.userId = :userId AND sl.userId <> :userId AND sl.sequence > :afterSequence " +
+           "ORDER BY sl.sequence ASC")
+    Stream<SyncLog> streamTeamChangesByOthersAfterSequence(
+        @Param("userId") String userId,
+        @Param("afterSequence") long afterSequence
     );
 
+    /**
+     * Sequence numbers of logs written up to {@code since}, newest first.
+     * Read with a one-row page to turn a timestamp into a feed position.
+     */
+    @Query("SELECT sl.sequence FROM SyncLog sl WHERE sl.sequence IS NOT NULL AND sl.timestamp <= :since " +
+           "ORDER BY sl.sequence DESC")
+    List<Long> findSequencesUpTo(@Param("since") LocalDateTime since, Pageable pageable);
+
+    /**
+     * Sequence numbers above {@code afterSequence} of logs written at or after
+     * {@code cutoff}, oldest first. Read with a one-row page, it walks the
+     * sequence index from the compaction watermark and stops at the first
+     * recent log, so no timestamp index is needed.
+     */
+    @Query("SELECT sl.sequence FROM SyncLog sl WHERE sl.sequence > :afterSequence AND sl.timestamp >= :cutoff " +
+           "ORDER BY sl.sequence ASC")
+    List<Long> findSequencesFrom(@Param("afterSequence") long afterSequence, @Param("cutoff") LocalDateTime cutoff,
+                                 Pageable pageable);
+
+    /**
+     * Remove logs in (fromSequence, toSequence] that a later log of the same
+     * entity supersedes. The latest row of every entity, including delete
+     * tombstones, always survives.
+     */
+    @Modifying
+    @Query("DELETE FROM SyncLog sl WHERE sl.sequence > :fromSequence AND sl.sequence <= :toSequence " +
+           "AND EXISTS (SELECT 1 FROM SyncLog newer WHERE newer.entityType = sl.entityType " +
+           "AND newer.entityId = sl.entityId AND newer.sequence > sl.sequence)")
+    int deleteSupersededInRange(@Param("fromSequence") long fromSequence, @Param("toSequence") long toSequence);
+
+    /**
+     * Drop the snapshots of delete tombstones in (fromSequence, toSequence].
+     * Clients replay a delete by entity id alone, so only the row has to stay.
+     */
+    @Modifying
+    @Query("UPDATE SyncLog sl SET sl.dataSnapshot = NULL WHERE sl.sequence > :fromSequence " +
+           "AND sl.sequence <= :toSequence AND sl.action = 'delete' AND sl.dataSnapshot IS NOT NULL")
+    int clearTombstoneSnapshotsInRange(@Param("fromSequence") long fromSequence, @Param("toSequence") long toSequence);
+
+    List<SyncLog> findByVersionIsNull(Pageable pageable);
+
+    List<SyncLog> findBySequenceIsNullOrderByTimestampAsc(Pageable pageable);
+
+    @Query("SELECT MAX(sl.sequence) FROM SyncLog sl")
+    Long findMaxSequence();
+
     @Query("SELECT sl FROM SyncLog sl WHERE sl.entityType = :entityType AND sl.entityId = :entityId ORDER BY sl.timestamp DESC")
     List<SyncLog> findByEntityTypeAndEntityId(@Param("entityType") String entityType, @Param("entityId") String entityId);
 
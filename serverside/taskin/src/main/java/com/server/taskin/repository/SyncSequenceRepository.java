@@ -0,0 +1,22 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.SyncSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface SyncSequenceRepository extends JpaRepository<SyncSequence, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM SyncSequence s WHERE s.name = :name")
+    Optional<SyncSequence> findForUpdate(@Param("name") String name);
+
+    @Query("SELECT s.currentValue FROM SyncSequence s WHERE s.name = :name")
+    Optional<Long> findCurrentValue(@Param("name") String name);
+}
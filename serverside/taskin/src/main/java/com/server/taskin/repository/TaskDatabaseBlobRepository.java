@@ -0,0 +1,19 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.TaskDatabaseBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface TaskDatabaseBlobRepository extends JpaRepository<TaskDatabaseBlob, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM TaskDatabaseBlob b WHERE b.userId = :userId")
+    Optional<TaskDatabaseBlob> findForUpdate(@Param("userId") String userId);
+}
@@ -16,6 +16,10 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, String>
 
     List<TeamMember> findByUserId(String userId);
 
+    // Membership count and latest join; changes whenever the user joins or leaves a team
+    @Query("SELECT COUNT(tm), MAX(tm.joinedAt) FROM TeamMember tm WHERE tm.userId = :userId")
+    List<Object[]> findMembershipFingerprint(@Param("userId") String userId);
+
     @Query("SELECT tm FROM TeamMember tm WHERE tm.team.id = :teamId AND tm.userId = :userId")
     Optional<TeamMember> findByTeamIdAndUserId(@Param("teamId") String teamId, @Param("userId") String userId);
 
@@ -1,23 +1,56 @@
 package com.server.taskin.repository;
 
 import com.server.taskin.model.User;
+import com.server.taskin.security.ClaimEpochs;
+import com.server.taskin.security.UserCredentials;
+import com.server.taskin.util.ValidationUtil;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
 
+    // Emails are stored normalized (ValidationUtil.normalizeEmail), so these
+    // are single probes of the unique email index whatever the input's case
     Optional<User> findByEmail(String email);
 
     boolean existsByEmail(String email);
 
-    @Query("SELECT u FROM User u WHERE u.email = :email AND u.enabled = true")
-    Optional<User> findActiveUserByEmail(@Param("email") String email);
+    @Query("SELECT new com.server.taskin.security.UserCredentials(u.id, u.email, u.password, u.name, u.authEpoch, u.teamEpoch, " +
+           "u.accountNonExpired, u.accountNonLocked, u.credentialsNonExpired, u.enabled) " +
+           "FROM User u WHERE u.email = :email AND u.enabled = true")
+    Optional<UserCredentials> findActiveCredentialsByEmail(@Param("email") String email);
+
+    /**
+     * Credentials for a login email or token subject. An exact match wins, so
+     * an account whose mixed-case email collides with another once lowercased
+     * can still sign in and change it; anything else matches by lowercase.
+     */
+    default Optional<UserCredentials> findActiveCredentialsForLogin(String email) {
+        String normalized = ValidationUtil.normalizeEmail(email);
+        if (normalized != null && !normalized.equals(email.trim())) {
+            Optional<UserCredentials> exact = findActiveCredentialsByEmail(email.trim());
+            if (exact.isPresent()) {
+                return exact;
+            }
+        }
+        return findActiveCredentialsByEmail(normalized);
+    }
+
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :userId")
+    int updatePasswordHash(@Param("userId") String userId, @Param("password") String password);
+
+    @Query("SELECT u FROM User u WHERE u.email <> LOWER(u.email)")
+    List<User> findUsersWithMixedCaseEmail();
 
     @Query("SELECT u FROM User u WHERE u.lastSyncAt IS NULL OR u.lastSyncAt < :since")
     Iterable<User> findUsersNeedingSync(@Param("since") LocalDateTime since);
@@ -25,6 +58,17 @@ public interface UserRepository extends JpaRepository<User, String> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.createdAt >= :since")
     long countUsersCreatedSince(@Param("since") LocalDateTime since);
 
-    @Query("SELECT u.taskDatabase FROM User u WHERE u.id = :userId")
-    Optional<String> findTaskDatabaseByUserId(@Param("userId") String userId);
+    @Query("SELECT new com.server.taskin.security.ClaimEpochs(u.authEpoch, u.teamEpoch) " +
+           "FROM User u WHERE u.id = :userId AND u.enabled = true")
+    Optional<ClaimEpochs> findActiveClaimEpochs(@Param("userId") String userId);
+
+    @Modifying
+    @Query("UPDATE User u SET u.teamEpoch = COALESCE(u.teamEpoch, 0) + 1 WHERE u.id IN :userIds")
+    int incrementTeamEpochs(@Param("userIds") Collection<String> userIds);
+
+    @Query("SELECT u.lastSyncAt FROM User u WHERE u.id = :userId")
+    Optional<LocalDateTime> findLastSyncAtByUserId(@Param("userId") String userId);
+
+    @Query("SELECT u.taskDatabaseVersion FROM User u WHERE u.id = :userId")
+    Optional<Long> findTaskDatabaseVersionByUserId(@Param("userId") String userId);
 }
\ No newline at end of file
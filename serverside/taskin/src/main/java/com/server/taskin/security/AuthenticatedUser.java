@@ -0,0 +1,68 @@
+package com.server.taskin.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Principal of a request authenticated by a JWT. Holds only what
+ * controllers read, so it can be cached across requests or built from
+ * token claims without keeping the JPA entity (or its password hash)
+ * around.
+ */
+public final class AuthenticatedUser implements UserDetails {
+
+    private final String id;
+    private final String email;
+    private final String name;
+    private final List<String> teamIds; // Null when not known without a query
+
+    public AuthenticatedUser(String id, String email, String name, List<String> teamIds) {
+        this.id = id;
+        this.email = email;
+        this.name = name;
+        this.teamIds = teamIds != null ? List.copyOf(teamIds) : null;
+    }
+
+    public static AuthenticatedUser of(UserCredentials user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getName(), null);
+    }
+
+    public static AuthenticatedUser of(VerifiedToken token) {
+        return new AuthenticatedUser(token.getUserId(), token.getSubject(), token.getName(), token.getTeamIds());
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTeamIds() {
+        return teamIds;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
@@ -0,0 +1,163 @@
+package com.server.taskin.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that hashes on a small dedicated pool instead of the
+ * calling request thread. At most {@code threads} hashes run at once and
+ * at most {@code queueCapacity} wait; further calls are rejected at once
+ * with {@link HashingBusyException}, so a login burst cannot take the CPU
+ * from sync traffic.
+ * <p>
+ * The work factor is calibrated on startup: the highest cost within the
+ * configured bounds whose hash stays under the target latency. Hashes
+ * with any other cost report {@link #upgradeEncoding}, so they are
+ * rehashed on the next successful login.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    static final String QUEUE_METRIC = "taskin.auth.password.queue";
+    static final String HASH_METRIC = "taskin.auth.password.hash";
+    static final String REJECTED_METRIC = "taskin.auth.password.rejected";
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[abxy]?\\$(\\d{2})\\$");
+    private static final int CALIBRATION_ROUNDS = 3;
+
+    private final int strength;
+    private final BCryptPasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long waitTimeoutMillis;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejected;
+
+    public BoundedPasswordEncoder(int threads, int queueCapacity, long waitTimeoutMillis,
+                                  long targetHashMillis, int minStrength, int maxStrength,
+                                  MeterRegistry meterRegistry) {
+        this.strength = calibrate(targetHashMillis, minStrength, maxStrength);
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.waitTimeoutMillis = waitTimeoutMillis;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder(QUEUE_METRIC, executor, pool -> pool.getQueue().size())
+            .description("Password hashes waiting for a hashing thread")
+            .register(meterRegistry);
+        this.encodeTimer = Timer.builder(HASH_METRIC).tag("op", "encode").register(meterRegistry);
+        this.matchesTimer = Timer.builder(HASH_METRIC).tag("op", "matches").register(meterRegistry);
+        this.rejected = meterRegistry.counter(REJECTED_METRIC);
+
+        logger.info("BCrypt work factor calibrated to {} ({} hashing threads)", strength, threads);
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> encodeTimer.record(() -> delegate.encode(rawPassword)));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> matchesTimer.record(() -> delegate.matches(rawPassword, encodedPassword)));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T run(Callable<T> hash) {
+        Future<T> future;
+        try {
+            future = executor.submit(hash);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new HashingBusyException();
+        }
+
+        try {
+            return future.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new HashingBusyException();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // Each extra cost step doubles the hashing time
+    private static int calibrate(long targetHashMillis, int minStrength, int maxStrength) {
+        if (minStrength >= maxStrength) {
+            return minStrength;
+        }
+
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            probe.encode("calibration");
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        double millis = Math.max(best / 1_000_000.0, 0.001);
+        int steps = (int) Math.floor(Math.log(targetHashMillis / millis) / Math.log(2));
+        return Math.max(minStrength, Math.min(maxStrength, minStrength + steps));
+    }
+
+    /**
+     * Thrown when the hashing pool is saturated. Mapped to 503 with a
+     * Retry-After header, so clients back off instead of retrying at once.
+     */
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException() {
+            super("Servidor ocupado processando autenticações. Tente novamente em instantes");
+        }
+    }
+}
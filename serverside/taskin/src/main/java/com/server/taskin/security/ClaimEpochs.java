@@ -0,0 +1,28 @@
+package com.server.taskin.security;
+
+/**
+ * A user's current auth and team epochs, compared against the epochs in a
+ * token to decide which of its claims are still trusted. Selected by a
+ * projection query.
+ */
+public final class ClaimEpochs {
+
+    // Unknown or disabled users; no token carries a negative epoch
+    static final ClaimEpochs INACTIVE = new ClaimEpochs(-1L, -1L);
+
+    private final long authEpoch;
+    private final long teamEpoch;
+
+    public ClaimEpochs(Long authEpoch, Long teamEpoch) {
+        this.authEpoch = authEpoch != null ? authEpoch : 0L;
+        this.teamEpoch = teamEpoch != null ? teamEpoch : 0L;
+    }
+
+    public long getAuthEpoch() {
+        return authEpoch;
+    }
+
+    public long getTeamEpoch() {
+        return teamEpoch;
+    }
+}
@@ -1,40 +1,105 @@
 package com.server.taskin.security;
 
+import com.server.taskin.model.User;
+import com.server.taskin.util.BoundedTtlCache;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtTokenProvider {
 
+    static final String USER_ID_CLAIM = "uid";
+    static final String NAME_CLAIM = "name";
+    static final String TEAMS_CLAIM = "teams";
+    static final String AUTH_EPOCH_CLAIM = "aep";
+    static final String TEAM_EPOCH_CLAIM = "tep";
+
+    // Larger team lists are left out of the token and read when needed
+    private static final int MAX_TEAM_CLAIMS = 50;
+
     @Value("${app.jwt.secret}")
     private String jwtSecret;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+    @Value("${app.jwt.verified-cache.enabled:true}")
+    private boolean verifiedCacheEnabled;
+
+    @Value("${app.jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    @Value("${app.jwt.verified-cache.ttl-ms:300000}")
+    private long verifiedCacheTtlMillis;
+
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Keyed by a hash of the token, so bearer tokens are not kept in memory
+    private BoundedTtlCache<String, VerifiedToken> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        if (verifiedCacheEnabled) {
+            verifiedTokens = new BoundedTtlCache<>(verifiedCacheMaxEntries, verifiedCacheTtlMillis);
+        }
+    }
+
+    /**
+     * Token carrying the user's identity, team ids (up to MAX_TEAM_CLAIMS)
+     * and the auth and team epochs, so requests can be authenticated from
+     * the claims.
+     */
+    public String generateToken(User user, List<String> teamIds) {
+        return generateToken(user.getId(), user.getEmail(), user.getName(),
+                user.getAuthEpoch() != null ? user.getAuthEpoch() : 0L,
+                user.getTeamEpoch() != null ? user.getTeamEpoch() : 0L, teamIds);
     }
 
-    public String generateToken(Authentication authentication) {
-        UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
+    public String generateToken(UserCredentials credentials, List<String> teamIds) {
+        return generateToken(credentials.getId(), credentials.getEmail(), credentials.getName(),
+                credentials.getAuthEpoch(), credentials.getTeamEpoch(), teamIds);
+    }
+
+    private String generateToken(String userId, String email, String name, long authEpoch, long teamEpoch,
+                                 List<String> teamIds) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationMs);
 
-        return Jwts.builder()
-                .setSubject(userPrincipal.getUsername())
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(email)
+                .claim(USER_ID_CLAIM, userId)
+                .claim(NAME_CLAIM, name)
+                .claim(AUTH_EPOCH_CLAIM, authEpoch)
+                .claim(TEAM_EPOCH_CLAIM, teamEpoch)
                 .setIssuedAt(new Date())
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+                .setExpiration(expiryDate);
+        if (teamIds.size() <= MAX_TEAM_CLAIMS) {
+            builder.claim(TEAMS_CLAIM, teamIds);
+        }
+        return builder.signWith(signingKey, SignatureAlgorithm.HS256).compact();
     }
 
+    /**
+     * Token carrying only the subject; requests load the principal by email.
+     */
     public String generateToken(String username) {
         Date expiryDate = new Date(System.currentTimeMillis() + jwtExpirationMs);
 
@@ -42,27 +107,29 @@ public class JwtTokenProvider {
                 .setSubject(username)
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-
-        return claims.getSubject();
-    }
-
-    public boolean validateToken(String token) {
+    /**
+     * Check the token's signature and expiry once and return its claims, or
+     * null when it is not valid. Tokens verified earlier are answered from
+     * the cache until they expire, without repeating the signature check.
+     */
+    public VerifiedToken verify(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
+            if (verifiedTokens == null) {
+                return parse(token);
+            }
+
+            String key = hash(token);
+            VerifiedToken verified = verifiedTokens.getOrCompute(key, () -> parse(token));
+            if (verified.isExpired(System.currentTimeMillis())) {
+                verifiedTokens.invalidate(key);
+                System.err.println("Expired JWT token");
+                return null;
+            }
+            return verified;
         } catch (SecurityException ex) {
             System.err.println("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -74,20 +141,41 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             System.err.println("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    public long getExpirationTime() {
+        return jwtExpirationMs;
     }
 
-    public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    private VerifiedToken parse(String token) {
+        Claims claims = parser.parseClaimsJws(token).getBody();
+        Object teams = claims.get(TEAMS_CLAIM);
+        Object authEpoch = claims.get(AUTH_EPOCH_CLAIM);
+        Object teamEpoch = claims.get(TEAM_EPOCH_CLAIM);
 
-        return claims.getExpiration();
+        List<String> teamIds = null;
+        if (teams instanceof List<?>) {
+            teamIds = ((List<?>) teams).stream().map(String::valueOf).collect(Collectors.toList());
+        }
+        return new VerifiedToken(
+                claims.getSubject(),
+                claims.getExpiration(),
+                claims.get(USER_ID_CLAIM, String.class),
+                claims.get(NAME_CLAIM, String.class),
+                teamIds,
+                authEpoch instanceof Number ? ((Number) authEpoch).longValue() : null,
+                teamEpoch instanceof Number ? ((Number) teamEpoch).longValue() : null
+        );
     }
 
-    public long getExpirationTime() {
-        return jwtExpirationMs;
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to provide SHA-256
+            throw new IllegalStateException(e);
+        }
     }
-}
\ No newline at end of file
+}
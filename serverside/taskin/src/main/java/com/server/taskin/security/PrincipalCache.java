@@ -0,0 +1,144 @@
+package com.server.taskin.security;
+
+import com.server.taskin.repository.UserRepository;
+import com.server.taskin.util.BoundedTtlCache;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+
+/**
+ * Principals of JWT-authenticated requests. Tokens with identity claims
+ * become principals straight from the claims, as long as their auth epoch
+ * still matches the user's; their team claims are kept only while the team
+ * epoch matches too. Other tokens are resolved by subject from a cache of
+ * loaded users. Both caches expire after a short TTL and are evicted as
+ * soon as a profile, password, account or team membership change commits.
+ * Unknown or disabled users are never cached.
+ */
+@Component
+public class PrincipalCache {
+
+    static final String METRIC = "taskin.auth.principal.cache";
+
+    @Value("${app.security.principal-cache.max-entries:10000}")
+    private int maxEntries;
+
+    @Value("${app.security.principal-cache.ttl-ms:60000}")
+    private long ttlMillis;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private BoundedTtlCache<String, AuthenticatedUser> principals;
+
+    // Current epochs per user id, ClaimEpochs.INACTIVE for unknown or disabled users
+    private BoundedTtlCache<String, ClaimEpochs> claimEpochs;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter fromClaims;
+
+    @PostConstruct
+    void init() {
+        principals = new BoundedTtlCache<>(maxEntries, ttlMillis);
+        claimEpochs = new BoundedTtlCache<>(maxEntries, ttlMillis);
+        hits = meterRegistry.counter(METRIC, "result", "hit");
+        misses = meterRegistry.counter(METRIC, "result", "miss");
+        fromClaims = meterRegistry.counter(METRIC, "result", "claims");
+    }
+
+    /**
+     * Principal for a verified token. Claims are trusted while the token's
+     * auth epoch is current, so the common case needs no user lookup; a
+     * stale or legacy token falls back to loading the user by subject. A
+     * membership change only stales the team epoch, and the principal then
+     * leaves its team ids to be read when needed.
+     */
+    public AuthenticatedUser resolve(VerifiedToken token) {
+        if (token.hasIdentityClaims()) {
+            String userId = token.getUserId();
+            ClaimEpochs current = claimEpochs.getOrCompute(userId,
+                () -> userRepository.findActiveClaimEpochs(userId).orElse(ClaimEpochs.INACTIVE));
+            if (current.getAuthEpoch() == token.getAuthEpoch()) {
+                fromClaims.increment();
+                if (token.getTeamEpoch() != null && current.getTeamEpoch() == token.getTeamEpoch()) {
+                    return AuthenticatedUser.of(token);
+                }
+                return new AuthenticatedUser(token.getUserId(), token.getSubject(), token.getName(), null);
+            }
+        }
+        return get(token.getSubject());
+    }
+
+    /**
+     * Principal of the active user with the given email (the token subject).
+     */
+    public AuthenticatedUser get(String subject) {
+        boolean[] loaded = { false };
+        AuthenticatedUser principal = principals.getOrCompute(subject, () -> {
+            loaded[0] = true;
+            // Subjects of tokens issued before emails were normalized may differ in case
+            return userRepository.findActiveCredentialsForLogin(subject)
+                .map(AuthenticatedUser::of)
+                .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + subject));
+        });
+        (loaded[0] ? misses : hits).increment();
+        return principal;
+    }
+
+    public void invalidate(String subject) {
+        principals.invalidate(subject);
+    }
+
+    public void invalidateEpochs(String userId) {
+        claimEpochs.invalidate(userId);
+    }
+
+    /**
+     * Evict once the change is visible, so a request racing the commit
+     * cannot put the old state back for a whole TTL.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPrincipalChanged(PrincipalChanged event) {
+        for (String userId : event.getUserIds()) {
+            invalidateEpochs(userId);
+        }
+        for (String subject : event.getSubjects()) {
+            invalidate(subject);
+        }
+    }
+
+    /**
+     * Published by UserService and TeamService after bumping the auth or
+     * team epoch of the given users. Subjects are emails whose loaded principal may
+     * have changed (before and after a profile change).
+     */
+    public static class PrincipalChanged {
+        private final Set<String> userIds;
+        private final Set<String> subjects;
+
+        public PrincipalChanged(Set<String> userIds, Set<String> subjects) {
+            this.userIds = userIds;
+            this.subjects = subjects;
+        }
+
+        public Set<String> getUserIds() {
+            return userIds;
+        }
+
+        public Set<String> getSubjects() {
+            return subjects;
+        }
+    }
+}
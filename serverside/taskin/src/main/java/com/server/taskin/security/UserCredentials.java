@@ -0,0 +1,104 @@
+package com.server.taskin.security;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * What the login path needs from a user: the password hash, the account
+ * flags and the few fields that go into the issued token. Selected by a
+ * projection query, so authenticating never loads the full entity.
+ */
+public final class UserCredentials implements UserDetails {
+
+    private final String id;
+    private final String email;
+    private final String password;
+    private final String name;
+    private final long authEpoch;
+    private final long teamEpoch;
+    private final boolean accountNonExpired;
+    private final boolean accountNonLocked;
+    private final boolean credentialsNonExpired;
+    private final boolean enabled;
+
+    public UserCredentials(String id, String email, String password, String name, Long authEpoch, Long teamEpoch,
+                           boolean accountNonExpired, boolean accountNonLocked,
+                           boolean credentialsNonExpired, boolean enabled) {
+        this.id = id;
+        this.email = email;
+        this.password = password;
+        this.name = name;
+        this.authEpoch = authEpoch != null ? authEpoch : 0L;
+        this.teamEpoch = teamEpoch != null ? teamEpoch : 0L;
+        this.accountNonExpired = accountNonExpired;
+        this.accountNonLocked = accountNonLocked;
+        this.credentialsNonExpired = credentialsNonExpired;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Same credentials with another password hash, after a rehash.
+     */
+    public UserCredentials withPassword(String password) {
+        return new UserCredentials(id, email, password, name, authEpoch, teamEpoch,
+            accountNonExpired, accountNonLocked, credentialsNonExpired, enabled);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAuthEpoch() {
+        return authEpoch;
+    }
+
+    public long getTeamEpoch() {
+        return teamEpoch;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -0,0 +1,72 @@
+package com.server.taskin.security;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Claims of a JWT whose signature and expiry have been checked. Immutable,
+ * so one instance can be shared by every request carrying the same token.
+ * Tokens issued before the identity claims existed carry only a subject;
+ * their userId and authEpoch are null. Tokens issued before team epochs
+ * existed have a null teamEpoch, so their team claims are never trusted.
+ */
+public final class VerifiedToken {
+
+    private final String subject;
+    private final long expiresAtMillis;
+    private final String userId;
+    private final String name;
+    private final List<String> teamIds; // Null when the token does not list them
+    private final Long authEpoch;
+    private final Long teamEpoch;
+
+    public VerifiedToken(String subject, Date expiration, String userId, String name,
+                         List<String> teamIds, Long authEpoch, Long teamEpoch) {
+        this.subject = subject;
+        this.expiresAtMillis = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        this.userId = userId;
+        this.name = name;
+        this.teamIds = teamIds != null ? List.copyOf(teamIds) : null;
+        this.authEpoch = authEpoch;
+        this.teamEpoch = teamEpoch;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Date getExpiration() {
+        return new Date(expiresAtMillis);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getTeamIds() {
+        return teamIds;
+    }
+
+    public Long getAuthEpoch() {
+        return authEpoch;
+    }
+
+    public Long getTeamEpoch() {
+        return teamEpoch;
+    }
+
+    /**
+     * Whether the principal can be built from the claims alone.
+     */
+    public boolean hasIdentityClaims() {
+        return userId != null && authEpoch != null;
+    }
+}
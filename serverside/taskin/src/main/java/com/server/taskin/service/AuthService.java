@@ -5,6 +5,8 @@ import com.server.taskin.dto.LoginRequest;
 import com.server.taskin.dto.RegisterRequest;
 import com.server.taskin.model.User;
 import com.server.taskin.security.JwtTokenProvider;
+import com.server.taskin.security.UserCredentials;
+import com.server.taskin.security.VerifiedToken;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -13,6 +15,8 @@ import org.springframework.security.core.AuthenticationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 @Transactional
 public class AuthService {
@@ -20,6 +24,9 @@ public class AuthService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private TeamService teamService;
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
@@ -35,8 +42,8 @@ public class AuthService {
                 )
             );
 
-            String jwt = tokenProvider.generateToken(authentication);
-            User user = (User) authentication.getPrincipal();
+            UserCredentials user = (UserCredentials) authentication.getPrincipal();
+            String jwt = tokenProvider.generateToken(user, teamService.getUserTeamIds(user.getId()));
 
             return new AuthResponse(
                 jwt,
@@ -52,17 +59,15 @@ public class AuthService {
     }
 
     public AuthResponse register(RegisterRequest registerRequest) {
-        if (userService.existsByEmail(registerRequest.getEmail())) {
-            throw new RuntimeException("Email já está em uso");
-        }
-
+        // createUser rejects an email already in use
         User user = userService.createUser(
             registerRequest.getEmail(),
             registerRequest.getPassword(),
             registerRequest.getName()
         );
 
-        String jwt = tokenProvider.generateToken(user.getEmail());
+        // A new user has no teams yet
+        String jwt = tokenProvider.generateToken(user, List.of());
 
         return new AuthResponse(
             jwt,
@@ -73,11 +78,10 @@ public class AuthService {
         );
     }
 
-    public boolean validateToken(String token) {
-        return tokenProvider.validateToken(token);
-    }
-
-    public String getUsernameFromToken(String token) {
-        return tokenProvider.getUsernameFromToken(token);
+    /**
+     * Claims of the token, or null when it is invalid or expired.
+     */
+    public VerifiedToken verifyToken(String token) {
+        return tokenProvider.verify(token);
     }
 }
\ No newline at end of file
@@ -1,34 +1,138 @@
 package com.server.taskin.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.server.taskin.config.JsonCodecs;
 import com.server.taskin.dto.DeltaSyncRequest;
 import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.model.EntityHead;
+import com.server.taskin.model.FeedHead;
 import com.server.taskin.model.SyncLog;
 import com.server.taskin.model.SharedTask;
+import com.server.taskin.repository.EntityHeadRepository;
+import com.server.taskin.repository.FeedHeadRepository;
 import com.server.taskin.repository.SyncLogRepository;
 import com.server.taskin.repository.SharedTaskRepository;
-import com.server.taskin.util.JsonUtil;
+import com.server.taskin.repository.TeamMemberRepository;
+import com.server.taskin.util.EmbeddedJson;
+import com.server.taskin.util.SnapshotFields;
+import com.server.taskin.util.SyncCursor;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class DeltaSyncService {
 
+    private static final Logger logger = LoggerFactory.getLogger(DeltaSyncService.class);
+
+    // Keeps IN lists well below driver bind-parameter limits
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    // Rows written between explicit flushes of a streamed change feed
+    private static final int STREAM_FLUSH_INTERVAL = 100;
+
+    // Blank heads reserved for new entities so they can be locked like
+    // existing ones. PostgreSQL waits for a concurrent insert of the same key
+    // and then skips it; other databases (H2 in dev and tests) use a guard.
+    private static final String RESERVE_HEAD_UPSERT_SQL =
+        "INSERT INTO entity_heads (id, entity_type, entity_id, version, updated_at) VALUES (?, ?, ?, 0, ?) " +
+        "ON CONFLICT (entity_type, entity_id) DO NOTHING";
+    private static final String RESERVE_HEAD_GUARDED_SQL =
+        "INSERT INTO entity_heads (id, entity_type, entity_id, version, updated_at) " +
+        "SELECT CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), CAST(? AS VARCHAR(255)), 0, CAST(? AS TIMESTAMP) " +
+        "WHERE NOT EXISTS (SELECT 1 FROM entity_heads WHERE entity_type = ? AND entity_id = ?)";
+    private static final int RESERVE_HEAD_BATCH_SIZE = 500;
+
+    // One head per logged entity without one: the latest log by sequence gives
+    // the snapshot, the earliest the owner. The head reuses the latest log's
+    // id, which is unique per head and needs no database-specific UUID function
+    private static final String BACKFILL_HEADS_SQL =
+        "INSERT INTO entity_heads (id, entity_type, entity_id, version, last_action, team_id, owner_id, data_snapshot, updated_at) " +
+        "SELECT latest.id, latest.entity_type, latest.entity_id, agg.max_version, latest.action, latest.team_id, " +
+        "earliest.user_id, latest.data_snapshot, LOCALTIMESTAMP " +
+        "FROM (SELECT entity_type, entity_id, MAX(sequence_number) AS last_sequence, " +
+        "MIN(sequence_number) AS first_sequence, MAX(COALESCE(version, 0)) AS max_version " +
+        "FROM sync_logs GROUP BY entity_type, entity_id) agg " +
+        "JOIN sync_logs latest ON latest.sequence_number = agg.last_sequence " +
+        "JOIN sync_logs earliest ON earliest.sequence_number = agg.first_sequence " +
+        "WHERE NOT EXISTS (SELECT 1 FROM entity_heads h WHERE h.entity_type = agg.entity_type AND h.entity_id = agg.entity_id)";
+
+    @Value("${app.sync.feed.default-page-size:500}")
+    private int defaultPageSize;
+
+    @Value("${app.sync.feed.max-page-size:1000}")
+    private int maxPageSize;
+
     @Autowired
     private SyncLogRepository syncLogRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JsonCodecs jsonCodecs;
+
+    @Autowired
+    private EntityHeadRepository entityHeadRepository;
+
     @Autowired
     private SharedTaskRepository sharedTaskRepository;
 
     @Autowired
-    private TeamService teamService;
+    private SyncSequenceService syncSequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private FeedHeadRepository feedHeadRepository;
+
+    @Autowired
+    private TeamMemberRepository teamMemberRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private boolean upsertSupported;
+
+    @PostConstruct
+    void init() {
+        upsertSupported = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+    }
 
     /**
      * Process delta sync request from client
@@ -38,118 +142,292 @@ public class DeltaSyncService {
      */
     public DeltaSyncResponse processDeltaSync(DeltaSyncRequest request, String userId) {
         LocalDateTime syncTimestamp = LocalDateTime.now();
-        List<DeltaSyncResponse.SyncChange> serverChanges = new ArrayList<>();
         List<DeltaSyncResponse.SyncConflict> conflicts = new ArrayList<>();
 
-        // Get user's team IDs
-        List<String> userTeamIds = teamService.getUserTeamIds(userId);
-
-        // Process incoming changes from client
+        // Process incoming changes from client as one set-based batch
         if (request.getChanges() != null && !request.getChanges().isEmpty()) {
-            for (DeltaSyncRequest.SyncChange clientChange : request.getChanges()) {
-                try {
-                    // Check for conflicts
-                    List<SyncLog> existingLogs = syncLogRepository.findByEntityTypeAndEntityId(
-                        clientChange.getEntityType(),
-                        clientChange.getEntityId()
-                    );
-
-                    // Get the most recent server version
-                    int serverVersion = existingLogs.isEmpty() ? 0 :
-                        existingLogs.stream()
-                            .mapToInt(log -> extractVersionFromData(log.getDataSnapshot()))
-                            .max()
-                            .orElse(0);
-
-                    // Check for conflict
-                    if (serverVersion > clientChange.getVersion()) {
-                        // Conflict detected - server has newer version
-                        String serverData = existingLogs.isEmpty() ? null : existingLogs.get(0).getDataSnapshot();
-                        conflicts.add(new DeltaSyncResponse.SyncConflict(
-                            clientChange.getEntityType(),
-                            clientChange.getEntityId(),
-                            clientChange.getVersion(),
-                            serverVersion,
-                            serverData,
-                            clientChange.getData()
-                        ));
-                        continue; // Skip applying this change
-                    }
+            applyClientChanges(request.getChanges(), userId, conflicts);
+        }
+        return buildResponse(request, userId, conflicts, syncTimestamp);
+    }
 
-                    // No conflict - apply change
-                    String teamId = extractTeamIdFromData(clientChange.getData());
+    /**
+     * Response for a retry of a batch that was already applied. The changes
+     * are not applied again; the recorded conflicts (keyed by entity type
+     * and id, with the server version at the time) are rebuilt from the
+     * retried request and the current heads, and the feed is read again
+     * from the request's cursor.
+     */
+    @Transactional(readOnly = true)
+    public DeltaSyncResponse replayDeltaSync(DeltaSyncRequest request, String userId, Map<String, Integer> conflictVersions) {
+        LocalDateTime syncTimestamp = LocalDateTime.now();
+        List<DeltaSyncResponse.SyncConflict> conflicts = new ArrayList<>();
 
-                    // Create sync log entry
-                    SyncLog syncLog = new SyncLog(
-                        userId,
-                        clientChange.getEntityType(),
-                        clientChange.getEntityId(),
-                        clientChange.getAction(),
-                        teamId,
-                        clientChange.getData()
-                    );
-                    syncLogRepository.save(syncLog);
-
-                    // If this is a task with a teamId, add it to shared_tasks table
-                    if ("task".equals(clientChange.getEntityType()) && teamId != null && !teamId.isEmpty()) {
-                        if ("create".equals(clientChange.getAction()) || "update".equals(clientChange.getAction())) {
-                            // Check if entry already exists
-                            if (!sharedTaskRepository.existsByTaskIdAndTeamId(clientChange.getEntityId(), teamId)) {
-                                SharedTask sharedTask = new SharedTask(
-                                    clientChange.getEntityId(),
-                                    teamId,
-                                    userId
-                                );
-                                sharedTaskRepository.save(sharedTask);
-                                System.out.println("Added task " + clientChange.getEntityId() + " to shared_tasks for team " + teamId);
-                            }
-                        } else if ("delete".equals(clientChange.getAction())) {
-                            // Remove from shared_tasks if task is deleted
-                            sharedTaskRepository.deleteByTaskIdAndTeamId(clientChange.getEntityId(), teamId);
-                            System.out.println("Removed task " + clientChange.getEntityId() + " from shared_tasks for team " + teamId);
-                        }
-                    }
+        if (!conflictVersions.isEmpty() && request.getChanges() != null) {
+            Map<String, String[]> keys = new LinkedHashMap<>();
+            for (DeltaSyncRequest.SyncChange change : request.getChanges()) {
+                keys.put(headKey(change.getEntityType(), change.getEntityId()),
+                    new String[] { change.getEntityType(), change.getEntityId() });
+            }
+            Map<String, EntityHead> heads = findHeads(keys.values());
 
-                } catch (Exception e) {
-                    // Log error but continue processing
-                    System.err.println("Error processing change: " + e.getMessage());
+            for (DeltaSyncRequest.SyncChange change : request.getChanges()) {
+                String key = headKey(change.getEntityType(), change.getEntityId());
+                Integer serverVersion = conflictVersions.get(key);
+                if (serverVersion == null) {
+                    continue;
                 }
+                EntityHead head = heads.get(key);
+                conflicts.add(new DeltaSyncResponse.SyncConflict(
+                    change.getEntityType(),
+                    change.getEntityId(),
+                    change.getVersion(),
+                    serverVersion,
+                    head != null ? head.getDataSnapshot() : null,
+                    change.getData()
+                ));
             }
         }
+        return buildResponse(request, userId, conflicts, syncTimestamp);
+    }
 
-        // Get server changes since last sync
-        LocalDateTime lastSyncAt = request.getLastSyncAt() != null ?
-            request.getLastSyncAt() : LocalDateTime.now().minusYears(10);
-
-        List<SyncLog> serverSyncLogs = syncLogRepository.findChangesSinceTimestamp(
-            userId,
-            userTeamIds,
-            lastSyncAt
-        );
+    private DeltaSyncResponse buildResponse(DeltaSyncRequest request, String userId,
+                                            List<DeltaSyncResponse.SyncConflict> conflicts, LocalDateTime syncTimestamp) {
+        List<DeltaSyncResponse.SyncChange> serverChanges = new ArrayList<>();
 
-        // Convert sync logs to changes
-        for (SyncLog log : serverSyncLogs) {
-            // Don't send back changes from this same user (to avoid echo)
-            if (!log.getUserId().equals(userId)) {
-                int version = extractVersionFromData(log.getDataSnapshot());
-                serverChanges.add(new DeltaSyncResponse.SyncChange(
-                    log.getEntityType(),
-                    log.getEntityId(),
-                    log.getAction(),
-                    log.getDataSnapshot(),
-                    log.getTimestamp(),
-                    version
-                ));
-            }
+        // Get one page of server changes after the client's cursor. The
+        // client's own writes are excluded by the query to avoid echo.
+        FeedSlice feed = readFeed(userId, false, request.getCursor(), request.getLastSyncAt(), request.getLimit());
+        for (SyncLog log : feed.logs) {
+            serverChanges.add(toSyncChange(log));
         }
 
-        return new DeltaSyncResponse(
+        // Timestamp-only clients resume from the last row they received when more pages remain
+        LocalDateTime lastSyncAt = feed.hasMore && !feed.logs.isEmpty() ?
+            feed.logs.get(feed.logs.size() - 1).getTimestamp() : syncTimestamp;
+
+        DeltaSyncResponse response = new DeltaSyncResponse(
             serverChanges,
             conflicts,
-            syncTimestamp,
+            lastSyncAt,
             true,
             "Sync completed successfully"
         );
+        response.setNextCursor(SyncCursor.encode(feed.nextSequence));
+        response.setHasMore(feed.hasMore);
+        response.setCompacted(feed.compacted);
+        return response;
+    }
+
+    /**
+     * Apply a batch of client changes with a fixed number of round trips:
+     * one locking head lookup per chunk of entity ids, one JDBC batch for the
+     * new SyncLog rows, and batched writes for heads and shared_tasks.
+     * Changes are still evaluated in request order, so an entity that appears
+     * several times in one batch is checked against its in-batch head.
+     */
+    private void applyClientChanges(List<DeltaSyncRequest.SyncChange> changes, String userId,
+                                    List<DeltaSyncResponse.SyncConflict> conflicts) {
+        SortedMap<String, String[]> keys = new TreeMap<>();
+        for (DeltaSyncRequest.SyncChange change : changes) {
+            keys.put(headKey(change.getEntityType(), change.getEntityId()),
+                new String[] { change.getEntityType(), change.getEntityId() });
+        }
+        Map<String, EntityHead> heads = lockHeads(keys);
+        Map<String, EntityHead> touchedHeads = new LinkedHashMap<>();
+        List<SyncLog> newLogs = new ArrayList<>(changes.size());
+
+        // Desired shared_tasks state per "taskId:teamId", last action wins
+        Map<String, String[]> sharedTaskPairs = new LinkedHashMap<>();
+        Map<String, Boolean> sharedTaskWanted = new HashMap<>();
+
+        for (DeltaSyncRequest.SyncChange clientChange : changes) {
+            try {
+                String key = headKey(clientChange.getEntityType(), clientChange.getEntityId());
+                EntityHead head = heads.get(key);
+
+                int serverVersion = head != null ? head.getVersion() : 0;
+
+                // Check for conflict
+                if (serverVersion > clientChange.getVersion()) {
+                    // Conflict detected - server has newer version
+                    conflicts.add(new DeltaSyncResponse.SyncConflict(
+                        clientChange.getEntityType(),
+                        clientChange.getEntityId(),
+                        clientChange.getVersion(),
+                        serverVersion,
+                        head.getDataSnapshot(),
+                        clientChange.getData()
+                    ));
+                    continue; // Skip applying this change
+                }
+
+                // No conflict - apply change, reading the snapshot fields once
+                SnapshotFields fields = SnapshotFields.parse(clientChange.getData());
+                String teamId = fields.getTeamId();
+
+                SyncLog syncLog = new SyncLog(
+                    userId,
+                    clientChange.getEntityType(),
+                    clientChange.getEntityId(),
+                    clientChange.getAction(),
+                    teamId,
+                    clientChange.getData()
+                );
+                applySnapshotFields(syncLog, fields);
+                newLogs.add(syncLog);
+
+                head = advanceHead(head, syncLog);
+                heads.put(key, head);
+                touchedHeads.put(key, head);
+
+                // If this is a task with a teamId, track its shared_tasks membership
+                if ("task".equals(clientChange.getEntityType()) && teamId != null && !teamId.isEmpty()) {
+                    String pairKey = clientChange.getEntityId() + ":" + teamId;
+                    if ("create".equals(clientChange.getAction()) || "update".equals(clientChange.getAction())) {
+                        sharedTaskPairs.put(pairKey, new String[] { clientChange.getEntityId(), teamId });
+                        sharedTaskWanted.put(pairKey, true);
+                    } else if ("delete".equals(clientChange.getAction())) {
+                        sharedTaskPairs.put(pairKey, new String[] { clientChange.getEntityId(), teamId });
+                        sharedTaskWanted.put(pairKey, false);
+                    }
+                }
+
+            } catch (Exception e) {
+                // Log error but continue processing
+                logger.warn("Skipped {} change of {} {} from user {}", clientChange.getAction(),
+                    clientChange.getEntityType(), clientChange.getEntityId(), userId, e);
+            }
+        }
+
+        // Read shared_tasks state before writing so the query does not force
+        // an early flush of the pending inserts
+        List<SharedTask> sharedTasksToInsert = new ArrayList<>();
+        List<SharedTask> sharedTasksToDelete = new ArrayList<>();
+        planSharedTaskChanges(sharedTaskPairs, sharedTaskWanted, userId, sharedTasksToInsert, sharedTasksToDelete);
+
+        entityHeadRepository.saveAll(touchedHeads.values());
+        if (!sharedTasksToInsert.isEmpty()) {
+            sharedTaskRepository.saveAll(sharedTasksToInsert);
+            logger.debug("Added {} tasks to shared_tasks", sharedTasksToInsert.size());
+        }
+        if (!sharedTasksToDelete.isEmpty()) {
+            sharedTaskRepository.deleteAllInBatch(sharedTasksToDelete);
+            logger.debug("Removed {} tasks from shared_tasks", sharedTasksToDelete.size());
+        }
+
+        if (newLogs.isEmpty()) {
+            return;
+        }
+
+        // Everything else is written first, so the global sequence row is
+        // only locked for the log inserts and the commit
+        entityManager.flush();
+        long sequence = syncSequenceService.allocate(newLogs.size());
+        for (SyncLog syncLog : newLogs) {
+            syncLog.setSequence(sequence++);
+        }
+        syncLogRepository.saveAll(newLogs);
+        publishChangesLogged(userId, newLogs);
+    }
+
+    /**
+     * Lock the heads of the given entities (keyed by headKey) until the
+     * transaction ends, reserving blank heads for new entities first. A
+     * concurrent batch touching the same entity waits here, so it checks
+     * versions against the committed head instead of a stale one. Locks are
+     * taken in key order, which keeps two batches from deadlocking.
+     * <p>
+     * A blank head whose change is then rejected stays behind like a missing
+     * one: version 0 and no owner, so no bootstrap ever returns it.
+     */
+    private Map<String, EntityHead> lockHeads(SortedMap<String, String[]> keys) {
+        Map<String, EntityHead> heads = findHeadsForUpdate(keys.values());
+
+        List<String[]> missing = new ArrayList<>();
+        for (Map.Entry<String, String[]> entry : keys.entrySet()) {
+            if (!heads.containsKey(entry.getKey())) {
+                missing.add(entry.getValue());
+            }
+        }
+        if (!missing.isEmpty()) {
+            reserveHeads(missing);
+            heads.putAll(findHeadsForUpdate(missing));
+        }
+        return heads;
+    }
+
+    private Map<String, EntityHead> findHeadsForUpdate(Collection<String[]> keys) {
+        return findHeads(keys, true);
+    }
+
+    private Map<String, EntityHead> findHeads(Collection<String[]> keys) {
+        return findHeads(keys, false);
+    }
+
+    private Map<String, EntityHead> findHeads(Collection<String[]> keys, boolean forUpdate) {
+        Set<String> entityTypes = new HashSet<>();
+        Set<String> entityIds = new TreeSet<>();
+        for (String[] key : keys) {
+            entityTypes.add(key[0]);
+            entityIds.add(key[1]);
+        }
+
+        Map<String, EntityHead> heads = new HashMap<>();
+        for (List<String> chunk : chunk(entityIds)) {
+            List<EntityHead> found = forUpdate
+                ? entityHeadRepository.findForUpdate(entityTypes, chunk)
+                : entityHeadRepository.findByEntityTypeInAndEntityIdIn(entityTypes, chunk);
+            for (EntityHead head : found) {
+                heads.put(headKey(head.getEntityType(), head.getEntityId()), head);
+            }
+        }
+        return heads;
+    }
+
+    private void reserveHeads(List<String[]> keys) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        String sql = upsertSupported ? RESERVE_HEAD_UPSERT_SQL : RESERVE_HEAD_GUARDED_SQL;
+        jdbcTemplate.batchUpdate(sql, keys, RESERVE_HEAD_BATCH_SIZE, (statement, key) -> {
+            statement.setString(1, UUID.randomUUID().toString());
+            statement.setString(2, key[0]);
+            statement.setString(3, key[1]);
+            statement.setTimestamp(4, now);
+            if (!upsertSupported) {
+                statement.setString(5, key[0]);
+                statement.setString(6, key[1]);
+            }
+        });
+    }
+
+    private void planSharedTaskChanges(Map<String, String[]> pairs, Map<String, Boolean> wanted, String userId,
+                                       List<SharedTask> toInsert, List<SharedTask> toDelete) {
+        if (pairs.isEmpty()) {
+            return;
+        }
+
+        Set<String> taskIds = new LinkedHashSet<>();
+        for (String[] pair : pairs.values()) {
+            taskIds.add(pair[0]);
+        }
+
+        Map<String, SharedTask> existing = new HashMap<>();
+        for (List<String> chunk : chunk(taskIds)) {
+            for (SharedTask sharedTask : sharedTaskRepository.findByTaskIdIn(chunk)) {
+                existing.put(sharedTask.getTaskId() + ":" + sharedTask.getTeamId(), sharedTask);
+            }
+        }
+
+        for (Map.Entry<String, String[]> entry : pairs.entrySet()) {
+            SharedTask current = existing.get(entry.getKey());
+            if (wanted.get(entry.getKey())) {
+                if (current == null) {
+                    toInsert.add(new SharedTask(entry.getValue()[0], entry.getValue()[1], userId));
+                }
+            } else if (current != null) {
+                toDelete.add(current);
+            }
+        }
     }
 
     /**
@@ -157,59 +435,449 @@ public class DeltaSyncService {
      */
     public void logChange(String userId, String entityType, String entityId, String action, String teamId, String dataSnapshot) {
         SyncLog syncLog = new SyncLog(userId, entityType, entityId, action, teamId, dataSnapshot);
+        applySnapshotFields(syncLog, SnapshotFields.parse(dataSnapshot));
+
+        String key = headKey(entityType, entityId);
+        SortedMap<String, String[]> keys = new TreeMap<>(Map.of(key, new String[] { entityType, entityId }));
+        entityHeadRepository.save(advanceHead(lockHeads(keys).get(key), syncLog));
+
+        entityManager.flush();
+        syncLog.setSequence(syncSequenceService.allocate(1));
         syncLogRepository.save(syncLog);
+        publishChangesLogged(userId, List.of(syncLog));
     }
 
     /**
-     * Get changes since a specific timestamp for a user
+     * Build heads for entities that were logged before entity_heads existed,
+     * in one INSERT ... SELECT so no log row is loaded. Needs sequences and
+     * version columns backfilled first; afterwards heads are kept current by
+     * every append and this inserts nothing.
      */
-    public List<DeltaSyncResponse.SyncChange> getChangesSince(String userId, LocalDateTime since) {
-        List<String> userTeamIds = teamService.getUserTeamIds(userId);
-        List<SyncLog> logs = syncLogRepository.findChangesSinceTimestamp(userId, userTeamIds, since);
-
-        return logs.stream().map(log -> {
-            int version = extractVersionFromData(log.getDataSnapshot());
-            return new DeltaSyncResponse.SyncChange(
-                log.getEntityType(),
-                log.getEntityId(),
-                log.getAction(),
-                log.getDataSnapshot(),
-                log.getTimestamp(),
-                version
-            );
-        }).collect(Collectors.toList());
+    public int backfillEntityHeads() {
+        return jdbcTemplate.update(BACKFILL_HEADS_SQL);
     }
 
-    // Helper methods
+    /**
+     * Fill the owner of heads created before the column existed.
+     */
+    public int backfillHeadOwners() {
+        return entityHeadRepository.backfillOwners();
+    }
 
-    private int extractVersionFromData(String jsonData) {
-        if (jsonData == null || jsonData.isEmpty()) {
+    /**
+     * Fill the version and updatedAt columns of one page of logs written
+     * before they existed. Returns how many rows were updated so callers can
+     * loop until done.
+     */
+    public int backfillSnapshotColumns(int pageSize) {
+        List<SyncLog> logs = syncLogRepository.findByVersionIsNull(PageRequest.of(0, pageSize));
+        for (SyncLog log : logs) {
+            applySnapshotFields(log, SnapshotFields.parse(log.getDataSnapshot()));
+        }
+        syncLogRepository.saveAll(logs);
+        return logs.size();
+    }
+
+    /**
+     * Seed feed heads from the log when they are first introduced.
+     */
+    public int backfillFeedHeads() {
+        if (feedHeadRepository.count() > 0) {
             return 0;
         }
-        try {
-            Map<String, Object> data = JsonUtil.fromJson(jsonData, Map.class);
-            Object versionObj = data.get("version");
-            if (versionObj instanceof Integer) {
-                return (Integer) versionObj;
-            } else if (versionObj instanceof String) {
-                return Integer.parseInt((String) versionObj);
+
+        List<FeedHead> heads = new ArrayList<>();
+        for (Object[] row : feedHeadRepository.findUserHighWatersFromLogs()) {
+            heads.add(new FeedHead(FeedHead.userScope((String) row[0]), (Long) row[1]));
+        }
+        for (Object[] row : feedHeadRepository.findTeamHighWatersFromLogs()) {
+            heads.add(new FeedHead(FeedHead.teamScope((String) row[0]), (Long) row[1]));
+        }
+        feedHeadRepository.saveAll(heads);
+        return heads.size();
+    }
+
+    /**
+     * Validator for a user's change feed. It changes whenever something is
+     * appended to any scope the user can see, when their team memberships
+     * change, or when compaction rewrites history, so an unchanged value
+     * means the same request would return the same changes. It covers the
+     * feed state only; callers add whatever else selects the response body.
+     */
+    @Transactional(readOnly = true)
+    public String getFeedETag(String userId) {
+        Long highWater = feedHeadRepository.findFeedHighWater(userId, FeedHead.userScope(userId));
+        List<Object[]> membership = teamMemberRepository.findMembershipFingerprint(userId);
+        Object[] fingerprint = membership.isEmpty() ? new Object[] { 0L, null } : membership.get(0);
+
+        return "feed-" + (highWater != null ? highWater : 0L)
+            + "-" + fingerprint[0]
+            + "-" + (fingerprint[1] != null ? Math.abs(fingerprint[1].hashCode()) : 0)
+            + "-" + syncSequenceService.compactionWatermark();
+    }
+
+    /**
+     * Get one page of changes for a user, starting after the given cursor.
+     * Without a cursor the page starts at the given timestamp instead.
+     */
+    public DeltaSyncResponse.ChangeFeedPage getChangesSince(String userId, String cursor, LocalDateTime since, Integer limit) {
+        FeedSlice feed = readFeed(userId, true, cursor, since, limit);
+
+        List<DeltaSyncResponse.SyncChange> changes = feed.logs.stream()
+            .map(this::toSyncChange)
+            .collect(Collectors.toList());
+
+        return new DeltaSyncResponse.ChangeFeedPage(changes, SyncCursor.encode(feed.nextSequence), feed.hasMore, feed.compacted);
+    }
+
+    /**
+     * Write the change feed after the given cursor straight to {@code out}.
+     * Rows are pulled through a database cursor and detached as soon as they
+     * are written, so heap usage does not depend on how many changes are
+     * pending. Without a limit the whole remaining feed is written. With
+     * embedSnapshots (sync protocol 2) snapshots are written as raw JSON.
+     */
+    @Transactional(readOnly = true)
+    public void streamChangesSince(String userId, String cursor, LocalDateTime since, Integer limit,
+                                   boolean embedSnapshots, OutputStream out) throws IOException {
+        long afterSequence = resolveAfterSequence(cursor, since);
+        int maxChanges = limit != null && limit > 0 ? limit : Integer.MAX_VALUE;
+
+        long highWater = syncSequenceService.currentValue();
+        boolean compacted = afterSequence < syncSequenceService.compactionWatermark();
+
+        long nextSequence = afterSequence;
+        boolean hasMore = false;
+        int written = 0;
+        ObjectWriter changeWriter = embedSnapshots
+            ? jsonCodecs.syncChangeWriter().withAttribute(EmbeddedJson.RAW_JSON_ATTRIBUTE, Boolean.TRUE)
+            : jsonCodecs.syncChangeWriter();
+
+        try (Stream<SyncLog> own = syncLogRepository.streamOwnChangesAfterSequence(userId, afterSequence);
+             Stream<SyncLog> team = syncLogRepository.streamTeamChangesByOthersAfterSequence(userId, afterSequence);
+             JsonGenerator generator = jsonCodecs.jsonFactory().createGenerator(out)) {
+
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("changes");
+
+            Iterator<SyncLog> ownLogs = own.iterator();
+            Iterator<SyncLog> teamLogs = team.iterator();
+            SyncLog nextOwn = ownLogs.hasNext() ? ownLogs.next() : null;
+            SyncLog nextTeam = teamLogs.hasNext() ? teamLogs.next() : null;
+            while (nextOwn != null || nextTeam != null) {
+                SyncLog log;
+                if (nextTeam == null || (nextOwn != null && nextOwn.getSequence() < nextTeam.getSequence())) {
+                    log = nextOwn;
+                    nextOwn = ownLogs.hasNext() ? ownLogs.next() : null;
+                } else {
+                    log = nextTeam;
+                    nextTeam = teamLogs.hasNext() ? teamLogs.next() : null;
+                }
+                if (written == maxChanges) {
+                    hasMore = true;
+                    break;
+                }
+
+                changeWriter.writeValue(generator, toSyncChange(log));
+                nextSequence = log.getSequence();
+                entityManager.detach(log);
+
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
             }
-            return 0;
-        } catch (Exception e) {
-            return 0;
+
+            generator.writeEndArray();
+            if (!hasMore) {
+                nextSequence = Math.max(nextSequence, highWater);
+            }
+            generator.writeStringField("nextCursor", SyncCursor.encode(nextSequence));
+            generator.writeBooleanField("hasMore", hasMore);
+            generator.writeBooleanField("compacted", compacted);
+            generator.writeEndObject();
         }
     }
 
-    private String extractTeamIdFromData(String jsonData) {
-        if (jsonData == null || jsonData.isEmpty()) {
-            return null;
+    /**
+     * Write the user's current state as a single change feed page: one
+     * change per live entity, read from entity_heads instead of replaying
+     * the log. The returned cursor is the high-water mark read before the
+     * heads, so a following delta sync only sees later changes.
+     */
+    @Transactional(readOnly = true)
+    public void streamBootstrap(String userId, boolean embedSnapshots, OutputStream out) throws IOException {
+        long highWater = syncSequenceService.currentValue();
+        ObjectWriter changeWriter = embedSnapshots
+            ? jsonCodecs.syncChangeWriter().withAttribute(EmbeddedJson.RAW_JSON_ATTRIBUTE, Boolean.TRUE)
+            : jsonCodecs.syncChangeWriter();
+
+        try (Stream<EntityHead> heads = entityHeadRepository.streamVisibleHeads(userId);
+             JsonGenerator generator = jsonCodecs.jsonFactory().createGenerator(out)) {
+
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("changes");
+
+            int written = 0;
+            Iterator<EntityHead> iterator = heads.iterator();
+            while (iterator.hasNext()) {
+                EntityHead head = iterator.next();
+                changeWriter.writeValue(generator, toSyncChange(head));
+                entityManager.detach(head);
+
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
+
+            generator.writeEndArray();
+            generator.writeStringField("nextCursor", SyncCursor.encode(highWater));
+            generator.writeBooleanField("hasMore", false);
+            generator.writeBooleanField("compacted", false);
+            generator.writeEndObject();
+        }
+    }
+
+    /**
+     * Write the user's current state as a task database document grouped by
+     * entity type ("tasks", "projects", "categories"), each entry being the
+     * latest snapshot. Snapshots are embedded rather than re-encoded.
+     */
+    @Transactional(readOnly = true)
+    public void streamCurrentDatabase(String userId, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        String currentType = null;
+        int written = 0;
+
+        try (Stream<EntityHead> heads = entityHeadRepository.streamVisibleHeads(userId)) {
+            Iterator<EntityHead> iterator = heads.iterator();
+            while (iterator.hasNext()) {
+                EntityHead head = iterator.next();
+                if (head.getDataSnapshot() == null) {
+                    entityManager.detach(head);
+                    continue;
+                }
+                // Heads arrive ordered by type, so each group is written once
+                if (!head.getEntityType().equals(currentType)) {
+                    if (currentType != null) {
+                        generator.writeEndArray();
+                    }
+                    currentType = head.getEntityType();
+                    generator.writeArrayFieldStart(collectionName(currentType));
+                }
+                EmbeddedJson.write(head.getDataSnapshot(), generator, true);
+                entityManager.detach(head);
+
+                if (++written % STREAM_FLUSH_INTERVAL == 0) {
+                    generator.flush();
+                }
+            }
         }
-        try {
-            Map<String, Object> data = JsonUtil.fromJson(jsonData, Map.class);
-            Object teamIdObj = data.get("teamId");
-            return teamIdObj != null ? teamIdObj.toString() : null;
-        } catch (Exception e) {
-            return null;
+
+        if (currentType != null) {
+            generator.writeEndArray();
         }
+        generator.writeEndObject();
+    }
+
+    // Helper methods
+
+    /**
+     * Read at most one page of the change feed. The committed high-water mark
+     * is read before the page, so when nothing more is pending the cursor can
+     * safely jump past sequences the user cannot see. Without
+     * {@code includeOwn} only other members' team changes are returned.
+     */
+    private FeedSlice readFeed(String userId, boolean includeOwn, String cursor, LocalDateTime since, Integer limit) {
+        long afterSequence = resolveAfterSequence(cursor, since);
+        int pageSize = resolvePageSize(limit);
+
+        long highWater = syncSequenceService.currentValue();
+        boolean compacted = afterSequence < syncSequenceService.compactionWatermark();
+        PageRequest page = PageRequest.of(0, pageSize + 1);
+        List<SyncLog> logs = syncLogRepository.findTeamChangesByOthersAfterSequence(userId, afterSequence, page);
+        if (includeOwn) {
+            List<SyncLog> own = syncLogRepository.findOwnChangesAfterSequence(userId, afterSequence, page);
+            logs = mergeBySequence(own.iterator(), logs.iterator(), pageSize + 1);
+        }
+
+        boolean hasMore = logs.size() > pageSize;
+        if (hasMore) {
+            logs = logs.subList(0, pageSize);
+        }
+
+        long nextSequence = afterSequence;
+        if (!logs.isEmpty()) {
+            nextSequence = Math.max(nextSequence, logs.get(logs.size() - 1).getSequence());
+        }
+        if (!hasMore) {
+            nextSequence = Math.max(nextSequence, highWater);
+        }
+
+        return new FeedSlice(logs, nextSequence, hasMore, compacted);
+    }
+
+    // Appends are serialized by the sequence allocation lock, so read-then-save is safe here
+    private void advanceFeedHeads(String userId, List<SyncLog> logs) {
+        Map<String, Long> latest = new HashMap<>();
+        for (SyncLog log : logs) {
+            latest.merge(FeedHead.userScope(userId), log.getSequence(), Math::max);
+            if (log.getTeamId() != null && !log.getTeamId().isEmpty()) {
+                latest.merge(FeedHead.teamScope(log.getTeamId()), log.getSequence(), Math::max);
+            }
+        }
+
+        Map<String, FeedHead> heads = new HashMap<>();
+        for (FeedHead head : feedHeadRepository.findAllById(latest.keySet())) {
+            heads.put(head.getScope(), head);
+        }
+        // Loaded heads are managed and flushed by dirty checking; new ones are
+        // persisted directly, since a merge would select each assigned id again
+        for (Map.Entry<String, Long> entry : latest.entrySet()) {
+            FeedHead head = heads.get(entry.getKey());
+            if (head == null) {
+                entityManager.persist(new FeedHead(entry.getKey(), entry.getValue()));
+            } else if (entry.getValue() > head.getLastSequence()) {
+                head.setLastSequence(entry.getValue());
+            }
+        }
+    }
+
+    // Delivered to the push hub only if the surrounding transaction commits
+    private void publishChangesLogged(String userId, List<SyncLog> logs) {
+        if (logs.isEmpty()) {
+            return;
+        }
+        advanceFeedHeads(userId, logs);
+
+        Set<String> teamIds = new HashSet<>();
+        long lastSequence = 0L;
+        for (SyncLog log : logs) {
+            if (log.getTeamId() != null && !log.getTeamId().isEmpty()) {
+                teamIds.add(log.getTeamId());
+            }
+            lastSequence = Math.max(lastSequence, log.getSequence());
+        }
+        eventPublisher.publishEvent(new SyncEventHub.ChangesLogged(userId, teamIds, lastSequence));
+    }
+
+    // Both inputs are ordered by sequence and disjoint
+    private static List<SyncLog> mergeBySequence(Iterator<SyncLog> first, Iterator<SyncLog> second, int limit) {
+        List<SyncLog> merged = new ArrayList<>(limit);
+        SyncLog a = first.hasNext() ? first.next() : null;
+        SyncLog b = second.hasNext() ? second.next() : null;
+        while (merged.size() < limit && (a != null || b != null)) {
+            if (b == null || (a != null && a.getSequence() < b.getSequence())) {
+                merged.add(a);
+                a = first.hasNext() ? first.next() : null;
+            } else {
+                merged.add(b);
+                b = second.hasNext() ? second.next() : null;
+            }
+        }
+        return merged;
+    }
+
+    // Clients without a cursor yet start after the last log written up to their last sync time
+    private long resolveAfterSequence(String cursor, LocalDateTime since) {
+        if (cursor != null && !cursor.isEmpty()) {
+            return SyncCursor.decode(cursor);
+        }
+        if (since == null) {
+            return 0L;
+        }
+        List<Long> sequences = syncLogRepository.findSequencesUpTo(since, PageRequest.of(0, 1));
+        return sequences.isEmpty() ? 0L : sequences.get(0);
+    }
+
+    private int resolvePageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+
+    private DeltaSyncResponse.SyncChange toSyncChange(SyncLog log) {
+        return new DeltaSyncResponse.SyncChange(
+            log.getEntityType(),
+            log.getEntityId(),
+            log.getAction(),
+            log.getDataSnapshot(),
+            log.getTimestamp(),
+            versionOf(log)
+        );
+    }
+
+    private static DeltaSyncResponse.SyncChange toSyncChange(EntityHead head) {
+        return new DeltaSyncResponse.SyncChange(
+            head.getEntityType(),
+            head.getEntityId(),
+            head.getLastAction(),
+            head.getDataSnapshot(),
+            head.getUpdatedAt(),
+            head.getVersion()
+        );
+    }
+
+    private static String collectionName(String entityType) {
+        return "category".equals(entityType) ? "categories" : entityType + "s";
+    }
+
+    private EntityHead advanceHead(EntityHead head, SyncLog syncLog) {
+        if (head == null) {
+            head = new EntityHead(syncLog.getEntityType(), syncLog.getEntityId());
+        }
+        if (head.getOwnerId() == null) {
+            head.setOwnerId(syncLog.getUserId());
+        }
+        head.apply(
+            syncLog.getAction(),
+            versionOf(syncLog),
+            syncLog.getTeamId(),
+            syncLog.getDataSnapshot()
+        );
+        return head;
+    }
+
+    private static class FeedSlice {
+        private final List<SyncLog> logs;
+        private final long nextSequence;
+        private final boolean hasMore;
+        private final boolean compacted;
+
+        private FeedSlice(List<SyncLog> logs, long nextSequence, boolean hasMore, boolean compacted) {
+            this.logs = logs;
+            this.nextSequence = nextSequence;
+            this.hasMore = hasMore;
+            this.compacted = compacted;
+        }
+    }
+
+    static String headKey(String entityType, String entityId) {
+        return entityType + ":" + entityId;
+    }
+
+    private static List<List<String>> chunk(Collection<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>(Math.min(values.size(), IN_CLAUSE_CHUNK_SIZE));
+        for (String value : values) {
+            current.add(value);
+            if (current.size() == IN_CLAUSE_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(IN_CLAUSE_CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private static void applySnapshotFields(SyncLog syncLog, SnapshotFields fields) {
+        syncLog.setVersion(fields.getVersion());
+        syncLog.setEntityUpdatedAt(fields.getUpdatedAt());
+    }
+
+    private int versionOf(SyncLog syncLog) {
+        return syncLog.getVersion() != null ? syncLog.getVersion() : 0;
     }
 }
@@ -0,0 +1,103 @@
+package com.server.taskin.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind buffer for users.last_sync_at. Syncs only record the latest
+ * time per user in memory; a scheduled flush writes all of them in one JDBC
+ * batch. Times recorded since the last flush are lost if the process dies,
+ * so app.sync.last-sync.flush-interval-ms is the durability window.
+ */
+@Component
+public class LastSyncCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(LastSyncCoalescer.class);
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    // Never moves the column backwards, e.g. past a newer upload
+    private static final String UPDATE_SQL =
+        "UPDATE users SET last_sync_at = ? WHERE id = ? AND (last_sync_at IS NULL OR last_sync_at < ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<String, LocalDateTime> pending = new ConcurrentHashMap<>();
+
+    public void record(String userId, LocalDateTime syncedAt) {
+        pending.merge(userId, syncedAt, (current, next) -> next.isAfter(current) ? next : current);
+    }
+
+    /**
+     * The persisted value overlaid with a newer time still waiting for a flush.
+     */
+    public LocalDateTime latest(String userId, LocalDateTime persisted) {
+        LocalDateTime buffered = pending.get(userId);
+        if (buffered == null || (persisted != null && !buffered.isAfter(persisted))) {
+            return persisted;
+        }
+        return buffered;
+    }
+
+    @Scheduled(fixedDelayString = "${app.sync.last-sync.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (Exception e) {
+            // Entries stay pending and are retried on the next run
+            logger.error("Last sync flush failed; {} users stay pending", pending.size(), e);
+        }
+    }
+
+    /**
+     * Write every pending time and return how many users were flushed.
+     */
+    public synchronized int flush() {
+        List<Map.Entry<String, LocalDateTime>> snapshot = new ArrayList<>(pending.entrySet().size());
+        for (Map.Entry<String, LocalDateTime> entry : pending.entrySet()) {
+            snapshot.add(Map.entry(entry.getKey(), entry.getValue()));
+        }
+        if (snapshot.isEmpty()) {
+            return 0;
+        }
+
+        jdbcTemplate.batchUpdate(UPDATE_SQL, snapshot, FLUSH_BATCH_SIZE, (statement, entry) -> {
+            Timestamp syncedAt = Timestamp.valueOf(entry.getValue());
+            statement.setTimestamp(1, syncedAt);
+            statement.setString(2, entry.getKey());
+            statement.setTimestamp(3, syncedAt);
+        });
+
+        // Keep entries that were recorded again while the batch ran
+        for (Map.Entry<String, LocalDateTime> entry : snapshot) {
+            pending.remove(entry.getKey(), entry.getValue());
+        }
+        return snapshot.size();
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        try {
+            int flushed = flush();
+            if (flushed > 0) {
+                logger.info("Flushed last sync time of {} users on shutdown", flushed);
+            }
+        } catch (RuntimeException e) {
+            // Nothing retries after shutdown, so these times are lost
+            logger.error("Last sync flush failed on shutdown; {} users not written", pending.size(), e);
+        }
+    }
+}
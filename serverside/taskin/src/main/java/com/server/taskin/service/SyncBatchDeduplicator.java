@@ -0,0 +1,128 @@
+package com.server.taskin.service;
+
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.util.BoundedTtlCache;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Makes delta sync batches idempotent. Clients tag each batch with an id
+ * and reuse it when retrying; a retry of a committed batch is answered
+ * from a small replay record instead of being applied and logged a second
+ * time. The record keeps only the conflicts' keys and server versions, so
+ * an entry costs about the same whatever the size of the batch. A hash of
+ * the changes is kept with it, and a batch id reused for different changes
+ * is rejected instead of replayed.
+ */
+@Service
+public class SyncBatchDeduplicator {
+
+    public static final String BATCH_ID_REUSED = "BATCH_ID_REUSED";
+
+    @Value("${app.sync.batch-dedupe.max-entries:2000}")
+    private int maxEntries;
+
+    @Value("${app.sync.batch-dedupe.ttl-ms:900000}")
+    private long ttlMillis;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    private BoundedTtlCache<String, ProcessedBatch> processedBatches;
+
+    @PostConstruct
+    void init() {
+        processedBatches = new BoundedTtlCache<>(maxEntries, ttlMillis);
+    }
+
+    /**
+     * Process the batch, or replay an earlier run with the same batch id.
+     * Runs outside the sync transaction, so only committed batches are
+     * remembered.
+     */
+    public DeltaSyncResponse process(DeltaSyncRequest request, String userId) {
+        String batchId = request.getBatchId();
+        if (batchId == null || batchId.isBlank()) {
+            return deltaSyncService.processDeltaSync(request, userId);
+        }
+
+        // Scoped per user so one client cannot replay another's batch
+        String payloadHash = payloadHash(request);
+        DeltaSyncResponse[] processed = { null };
+        ProcessedBatch batch = processedBatches.getOrCompute(userId + ":" + batchId, () -> {
+            processed[0] = deltaSyncService.processDeltaSync(request, userId);
+            return ProcessedBatch.of(payloadHash, processed[0]);
+        });
+        if (processed[0] != null) {
+            return processed[0];
+        }
+        if (!batch.payloadHash.equals(payloadHash)) {
+            throw new TaskinException(BATCH_ID_REUSED, "batchId já utilizado para outras mudanças");
+        }
+        return deltaSyncService.replayDeltaSync(request, userId, batch.conflictVersions);
+    }
+
+    // Covers what each change does, not the client timestamps a retry may refresh
+    static String payloadHash(DeltaSyncRequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            if (request.getChanges() != null) {
+                for (DeltaSyncRequest.SyncChange change : request.getChanges()) {
+                    update(digest, change.getEntityType());
+                    update(digest, change.getEntityId());
+                    update(digest, change.getAction());
+                    update(digest, change.getData());
+                    update(digest, String.valueOf(change.getVersion()));
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Length-prefixed, so shifting text between adjacent fields changes the hash
+    private static void update(MessageDigest digest, String value) {
+        if (value == null) {
+            digest.update((byte) 0xFF);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        digest.update((byte) (bytes.length >>> 24));
+        digest.update((byte) (bytes.length >>> 16));
+        digest.update((byte) (bytes.length >>> 8));
+        digest.update((byte) bytes.length);
+        digest.update(bytes);
+    }
+
+    private static class ProcessedBatch {
+        private final String payloadHash;
+        // Server version per conflicting "entityType:entityId"
+        private final Map<String, Integer> conflictVersions;
+
+        private ProcessedBatch(String payloadHash, Map<String, Integer> conflictVersions) {
+            this.payloadHash = payloadHash;
+            this.conflictVersions = conflictVersions;
+        }
+
+        private static ProcessedBatch of(String payloadHash, DeltaSyncResponse response) {
+            Map<String, Integer> conflictVersions = new HashMap<>();
+            for (DeltaSyncResponse.SyncConflict conflict : response.getConflicts()) {
+                conflictVersions.put(DeltaSyncService.headKey(conflict.getEntityType(), conflict.getEntityId()),
+                    conflict.getServerVersion());
+            }
+            return new ProcessedBatch(payloadHash, Map.copyOf(conflictVersions));
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.server.taskin.service;
+
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.model.SyncChunk;
+import com.server.taskin.repository.SyncChunkRepository;
+import com.server.taskin.util.BlobCodec;
+import com.server.taskin.util.ContentDefinedChunker;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Per-user content-addressed chunk storage behind chunked task databases.
+ * Chunks are stored encoded and written at most once; manifests reference
+ * them by hash.
+ */
+@Service
+@Transactional
+public class SyncChunkStore {
+
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
+    private static final Pattern HASH_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    @Value("${app.sync.blob.codec:deflate}")
+    private String codecName;
+
+    @Autowired
+    private SyncChunkRepository syncChunkRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private BlobCodec writeCodec;
+
+    @PostConstruct
+    void init() {
+        writeCodec = BlobCodec.forName(codecName);
+    }
+
+    /**
+     * Hashes from the list the user has not stored yet, in list order and
+     * without duplicates.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findMissing(String userId, List<String> hashes) {
+        Set<String> wanted = new LinkedHashSet<>(hashes);
+        for (String hash : wanted) {
+            if (!HASH_PATTERN.matcher(hash).matches()) {
+                throw new TaskinException("INVALID_CHUNK", "Hash de bloco inválido: " + hash);
+            }
+        }
+
+        Set<String> existing = new HashSet<>();
+        for (List<String> chunk : chunk(wanted)) {
+            existing.addAll(syncChunkRepository.findExistingHashes(userId, chunk));
+        }
+        wanted.removeAll(existing);
+        return new ArrayList<>(wanted);
+    }
+
+    /**
+     * Store one chunk uploaded by a client after checking it matches its hash.
+     */
+    public void put(String userId, String hash, byte[] content) throws IOException {
+        if (content.length == 0 || content.length > ContentDefinedChunker.MAX_SIZE) {
+            throw new TaskinException("INVALID_CHUNK", "Tamanho de bloco inválido");
+        }
+        if (!ContentDefinedChunker.hash(content).equals(hash)) {
+            throw new TaskinException("INVALID_CHUNK", "O conteúdo do bloco não corresponde ao hash");
+        }
+        putAll(userId, Map.of(hash, content));
+    }
+
+    /**
+     * Store the given chunks, keyed by hash, skipping those already stored.
+     */
+    public void putAll(String userId, Map<String, byte[]> chunks) throws IOException {
+        Set<String> existing = new HashSet<>();
+        for (List<String> chunk : chunk(chunks.keySet())) {
+            existing.addAll(syncChunkRepository.findExistingHashes(userId, chunk));
+        }
+
+        for (Map.Entry<String, byte[]> entry : chunks.entrySet()) {
+            if (existing.contains(entry.getKey())) {
+                continue;
+            }
+            // Assigned ids, so persist directly instead of a merge that selects first
+            entityManager.persist(new SyncChunk(userId, entry.getKey(), writeCodec.name(),
+                encode(entry.getValue()), entry.getValue().length));
+        }
+    }
+
+    /**
+     * Load the chunks of a manifest, or return null when any is missing.
+     */
+    @Transactional(readOnly = true)
+    public List<SyncChunk> load(String userId, List<String> manifest) {
+        Map<String, SyncChunk> byHash = new HashMap<>();
+        for (List<String> chunk : chunk(new LinkedHashSet<>(manifest))) {
+            for (SyncChunk syncChunk : syncChunkRepository.findByUserIdAndHashIn(userId, chunk)) {
+                byHash.put(syncChunk.getHash(), syncChunk);
+            }
+        }
+
+        List<SyncChunk> ordered = new ArrayList<>(manifest.size());
+        for (String hash : manifest) {
+            SyncChunk syncChunk = byHash.get(hash);
+            if (syncChunk == null) {
+                return null;
+            }
+            ordered.add(syncChunk);
+        }
+        return ordered;
+    }
+
+    /**
+     * Decoded concatenation of the given chunks.
+     */
+    public static InputStream open(List<SyncChunk> chunks) throws IOException {
+        List<InputStream> streams = new ArrayList<>(chunks.size());
+        for (SyncChunk chunk : chunks) {
+            streams.add(BlobCodec.forName(chunk.getCodec()).decode(new ByteArrayInputStream(chunk.getContent())));
+        }
+        return new SequenceInputStream(Collections.enumeration(streams));
+    }
+
+    /**
+     * Delete the user's chunks not referenced by the current manifest. Recent
+     * chunks are kept, since they may belong to an upload still in progress.
+     */
+    public int deleteUnreferenced(String userId, Collection<String> referenced, LocalDateTime createdBefore) {
+        Set<String> unreferenced = new HashSet<>(syncChunkRepository.findHashesCreatedBefore(userId, createdBefore));
+        unreferenced.removeAll(referenced);
+
+        int deleted = 0;
+        for (List<String> chunk : chunk(unreferenced)) {
+            deleted += syncChunkRepository.deleteByUserIdAndHashIn(userId, chunk);
+        }
+        return deleted;
+    }
+
+    private byte[] encode(byte[] raw) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream(raw.length / 2);
+        try (OutputStream out = writeCodec.encode(encoded)) {
+            out.write(raw);
+        }
+        return encoded.toByteArray();
+    }
+
+    private static List<List<String>> chunk(Collection<String> values) {
+        List<List<String>> chunks = new ArrayList<>();
+        List<String> current = new ArrayList<>(Math.min(values.size(), IN_CLAUSE_CHUNK_SIZE));
+        for (String value : values) {
+            current.add(value);
+            if (current.size() == IN_CLAUSE_CHUNK_SIZE) {
+                chunks.add(current);
+                current = new ArrayList<>(IN_CLAUSE_CHUNK_SIZE);
+            }
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+}
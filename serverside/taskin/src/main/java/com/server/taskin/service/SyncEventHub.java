@@ -0,0 +1,215 @@
+package com.server.taskin.service;
+
+import com.server.taskin.security.PrincipalCache;
+import com.server.taskin.util.SyncCursor;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process fan-out of "new changes" hints to connected sync clients.
+ * Connections are async servlet requests, so an idle subscriber costs an
+ * open socket and a map entry but no thread. Events only carry the feed
+ * position; clients fetch the changes themselves through delta sync.
+ */
+@Service
+public class SyncEventHub {
+
+    private static final String CHANGES_EVENT = "changes";
+
+    @Value("${app.sync.push.timeout-ms:1800000}")
+    private long emitterTimeout;
+
+    @Autowired
+    private SyncSequenceService syncSequenceService;
+
+    @Autowired
+    private TeamService teamService;
+
+    private final Map<String, Set<SseEmitter>> emittersByUser = new ConcurrentHashMap<>();
+    private final Map<String, Set<SseEmitter>> emittersByTeam = new ConcurrentHashMap<>();
+    // Teams each open emitter is registered under; updated atomically per emitter
+    private final Map<SseEmitter, Set<String>> teamsByEmitter = new ConcurrentHashMap<>();
+
+    // Keeps fan-out to slow sockets off the committing request thread
+    private final ExecutorService publisher = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "sync-event-hub");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Open a push channel for a user, subscribed to the given teams. The
+     * teams are refreshed when the user's memberships change.
+     */
+    public SseEmitter subscribe(String userId, Collection<String> teamIds) {
+        SseEmitter emitter = createEmitter();
+
+        register(emittersByUser, userId, emitter);
+        Set<String> teams = Set.copyOf(teamIds);
+        teamsByEmitter.put(emitter, teams);
+        teams.forEach(teamId -> register(emittersByTeam, teamId, emitter));
+
+        Runnable cleanup = () -> {
+            unregister(emittersByUser, userId, emitter);
+            // Atomic with a concurrent refresh, which skips emitters already removed here
+            teamsByEmitter.compute(emitter, (e, registered) -> {
+                if (registered != null) {
+                    registered.forEach(teamId -> unregister(emittersByTeam, teamId, emitter));
+                }
+                return null;
+            });
+        };
+        emitter.onCompletion(cleanup);
+        emitter.onTimeout(cleanup);
+        emitter.onError(error -> cleanup.run());
+
+        // Let the client catch up with anything committed before it connected
+        send(emitter, changesEvent(syncSequenceService.currentValue()));
+        return emitter;
+    }
+
+    /**
+     * Notify the author's other sessions and every member of the touched
+     * teams, once the logs are committed and visible to their sync requests.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onChangesLogged(ChangesLogged event) {
+        publisher.execute(() -> {
+            Set<SseEmitter> targets = new LinkedHashSet<>(emittersByUser.getOrDefault(event.getUserId(), Set.of()));
+            for (String teamId : event.getTeamIds()) {
+                targets.addAll(emittersByTeam.getOrDefault(teamId, Set.of()));
+            }
+
+            Set<ResponseBodyEmitter.DataWithMediaType> hint = changesEvent(event.getSequence());
+            for (SseEmitter emitter : targets) {
+                send(emitter, hint);
+            }
+        });
+    }
+
+    /**
+     * Move the open channels of users whose memberships changed to their
+     * current teams. Queued behind earlier fan-outs, so a change logged for a
+     * newly joined team after this event still reaches them.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onPrincipalChanged(PrincipalCache.PrincipalChanged event) {
+        publisher.execute(() -> {
+            for (String userId : event.getUserIds()) {
+                Set<SseEmitter> emitters = emittersByUser.get(userId);
+                if (emitters == null || emitters.isEmpty()) {
+                    continue;
+                }
+                Set<String> teamIds = Set.copyOf(teamService.getUserTeamIds(userId));
+                for (SseEmitter emitter : emitters) {
+                    teamsByEmitter.computeIfPresent(emitter, (e, registered) -> {
+                        registered.stream().filter(teamId -> !teamIds.contains(teamId))
+                            .forEach(teamId -> unregister(emittersByTeam, teamId, emitter));
+                        teamIds.forEach(teamId -> register(emittersByTeam, teamId, emitter));
+                        return teamIds;
+                    });
+                }
+            }
+        });
+    }
+
+    /**
+     * Comment lines keep proxies and mobile networks from closing idle
+     * connections, and flush out dead ones.
+     */
+    @Scheduled(fixedDelayString = "${app.sync.push.heartbeat-ms:25000}")
+    public void heartbeat() {
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("ping").build();
+        for (Set<SseEmitter> emitters : emittersByUser.values()) {
+            for (SseEmitter emitter : emitters) {
+                send(emitter, ping);
+            }
+        }
+    }
+
+    public int getConnectionCount() {
+        return emittersByUser.values().stream().mapToInt(Set::size).sum();
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(emitterTimeout);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        publisher.shutdownNow();
+        emittersByUser.values().forEach(emitters -> emitters.forEach(SseEmitter::complete));
+    }
+
+    // Built once per event and shared, since a builder cannot be sent twice
+    private static Set<ResponseBodyEmitter.DataWithMediaType> changesEvent(long sequence) {
+        return SseEmitter.event()
+            .name(CHANGES_EVENT)
+            .data("{\"cursor\":\"" + SyncCursor.encode(sequence) + "\"}")
+            .build();
+    }
+
+    private static void send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; completing runs the cleanup callback
+            emitter.completeWithError(e);
+        }
+    }
+
+    private static void register(Map<String, Set<SseEmitter>> index, String key, SseEmitter emitter) {
+        index.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+    }
+
+    private static void unregister(Map<String, Set<SseEmitter>> index, String key, SseEmitter emitter) {
+        index.computeIfPresent(key, (k, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    /**
+     * Published by DeltaSyncService when sync logs are appended. The sequence
+     * is the highest one written by the transaction.
+     */
+    public static class ChangesLogged {
+        private final String userId;
+        private final Set<String> teamIds;
+        private final long sequence;
+
+        public ChangesLogged(String userId, Set<String> teamIds, long sequence) {
+            this.userId = userId;
+            this.teamIds = teamIds;
+            this.sequence = sequence;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public Set<String> getTeamIds() {
+            return teamIds;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.server.taskin.service;
+
+import com.server.taskin.model.SyncLog;
+import com.server.taskin.model.SyncSequence;
+import com.server.taskin.repository.SyncLogRepository;
+import com.server.taskin.repository.SyncSequenceRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Service
+@Transactional
+public class SyncSequenceService {
+
+    public static final String SYNC_LOG_SEQUENCE = "sync_logs";
+
+    // Highest sequence up to which superseded sync logs have been removed
+    public static final String COMPACTION_WATERMARK = "sync_logs_compacted";
+
+    @Autowired
+    private SyncSequenceRepository syncSequenceRepository;
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    /**
+     * Reserve {@code count} consecutive sequence numbers and return the first.
+     * The counter row stays locked until the calling transaction ends, which
+     * keeps readers from ever seeing a gap that is later filled in. Every
+     * writer queues on that row, so call this last, right before the logs
+     * are inserted.
+     */
+    public long allocate(int count) {
+        SyncSequence sequence = syncSequenceRepository.findForUpdate(SYNC_LOG_SEQUENCE)
+            .orElseGet(() -> syncSequenceRepository.save(new SyncSequence(SYNC_LOG_SEQUENCE, maxAssignedSequence())));
+
+        long first = sequence.getCurrentValue() + 1;
+        sequence.setCurrentValue(sequence.getCurrentValue() + count);
+        return first;
+    }
+
+    /**
+     * Highest committed sequence number. Every log at or below it is visible.
+     */
+    @Transactional(readOnly = true)
+    public long currentValue() {
+        return syncSequenceRepository.findCurrentValue(SYNC_LOG_SEQUENCE).orElse(0L);
+    }
+
+    /**
+     * Sequence up to which the log has been compacted. A cursor below it may
+     * have missed intermediate states, but never a latest state or tombstone.
+     */
+    @Transactional(readOnly = true)
+    public long compactionWatermark() {
+        return syncSequenceRepository.findCurrentValue(COMPACTION_WATERMARK).orElse(0L);
+    }
+
+    /**
+     * Sequence just below the first log written at or after {@code cutoff}
+     * and above the watermark, or null when there is nothing new to compact.
+     * A log older than the cutoff but sequenced after a recent one waits for
+     * a later run.
+     */
+    @Transactional(readOnly = true)
+    public Long compactionTarget(LocalDateTime cutoff) {
+        long watermark = compactionWatermark();
+        List<Long> recent = syncLogRepository.findSequencesFrom(watermark, cutoff, PageRequest.of(0, 1));
+        Long target = recent.isEmpty() ? syncLogRepository.findMaxSequence() : Long.valueOf(recent.get(0) - 1);
+        return target != null && target > watermark ? target : null;
+    }
+
+    /**
+     * Compact one range of the log above the current watermark, ending at
+     * most at {@code target}, and advance the watermark past it: superseded
+     * rows are deleted and tombstones lose their snapshot.
+     */
+    public CompactedRange compactNextRange(long target, int rangeSize) {
+        SyncSequence watermark = syncSequenceRepository.findForUpdate(COMPACTION_WATERMARK)
+            .orElseGet(() -> syncSequenceRepository.save(new SyncSequence(COMPACTION_WATERMARK, 0L)));
+
+        long from = watermark.getCurrentValue();
+        if (from >= target) {
+            return new CompactedRange(0, 0);
+        }
+
+        long to = Math.min(from + rangeSize, target);
+        int removed = syncLogRepository.deleteSupersededInRange(from, to);
+        int shrunk = syncLogRepository.clearTombstoneSnapshotsInRange(from, to);
+        watermark.setCurrentValue(to);
+        return new CompactedRange(removed, shrunk);
+    }
+
+    /**
+     * Number one page of logs written before sequences existed, oldest first.
+     * Returns how many rows were updated so callers can loop until done.
+     */
+    public int backfillSequences(int pageSize) {
+        List<SyncLog> logs = syncLogRepository.findBySequenceIsNullOrderByTimestampAsc(PageRequest.of(0, pageSize));
+        if (logs.isEmpty()) {
+            return 0;
+        }
+
+        long next = allocate(logs.size());
+        for (SyncLog log : logs) {
+            log.setSequence(next++);
+        }
+        syncLogRepository.saveAll(logs);
+        return logs.size();
+    }
+
+    private long maxAssignedSequence() {
+        Long max = syncLogRepository.findMaxSequence();
+        return max != null ? max : 0L;
+    }
+
+    public static class CompactedRange {
+        private final int removed;
+        private final int shrunk;
+
+        public CompactedRange(int removed, int shrunk) {
+            this.removed = removed;
+            this.shrunk = shrunk;
+        }
+
+        // Superseded rows deleted
+        public int getRemoved() {
+            return removed;
+        }
+
+        // Tombstones whose snapshot was cleared
+        public int getShrunk() {
+            return shrunk;
+        }
+    }
+}
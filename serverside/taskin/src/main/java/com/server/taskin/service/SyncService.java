@@ -1,103 +1,284 @@
 package com.server.taskin.service;
 
+import com.server.taskin.config.JsonCodecs;
 import com.server.taskin.dto.SyncRequest;
 import com.server.taskin.dto.SyncResponse;
-import com.server.taskin.model.User;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.util.JsonPatchUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.StringReader;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Service
 @Transactional
 public class SyncService {
 
+
     @Autowired
     private UserService userService;
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    @Autowired
+    private TaskDatabaseStore taskDatabaseStore;
+
+    @Autowired
+    private SyncChunkStore syncChunkStore;
 
+    @Autowired
+    private JsonCodecs jsonCodecs;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    /**
+     * Replace the user's stored database. The request body is bound to a
+     * String first; only validation and storage stream, so peak memory is
+     * that String plus the compacted copy. Large clients should use the
+     * chunked upload instead.
+     */
     public SyncResponse uploadDatabase(String userId, SyncRequest syncRequest) {
         try {
-            User user = userService.findById(userId);
-
             if (!StringUtils.hasText(syncRequest.getTaskDatabase())) {
                 return SyncResponse.error("Dados do banco de tarefas são obrigatórios");
             }
 
-            validateJsonFormat(syncRequest.getTaskDatabase());
-
-            String mergedDatabase = mergeWithExistingData(user.getTaskDatabase(), syncRequest.getTaskDatabase());
+            // The upload replaces the stored database, so the old blob is never read
+            String taskDatabase = syncRequest.getTaskDatabase();
+            taskDatabaseStore.save(userId, out -> validateAndCopy(jsonCodecs.jsonFactory().createParser(taskDatabase), out));
 
-            userService.updateTaskDatabase(userId, mergedDatabase);
+            userService.markTaskDatabaseUpdated(userId);
 
-            return SyncResponse.success(mergedDatabase, LocalDateTime.now());
+            // Clients keep their own copy; echoing it back would double the transfer
+            return SyncResponse.success(null, LocalDateTime.now());
 
         } catch (Exception e) {
             return SyncResponse.error("Erro ao fazer upload do banco: " + e.getMessage());
         }
     }
 
-    public SyncResponse downloadDatabase(String userId) {
-        try {
-            User user = userService.findById(userId);
-            String taskDatabase = user.getTaskDatabase();
+    /**
+     * Write the download response for a user in the given format (JSON,
+     * Smile or CBOR). JSON carries the stored database as a string field
+     * decoded straight into the output; binary formats embed it as a nested
+     * object, copied token by token.
+     */
+    public void streamDownload(String userId, OutputStream out, MediaType format) throws IOException {
+        userService.touchLastSyncAt(userId);
+        SyncResponse response = SyncResponse.success(null, LocalDateTime.now());
 
-            if (!StringUtils.hasText(taskDatabase)) {
-                taskDatabase = createEmptyDatabase();
+        try (Reader stored = taskDatabaseStore.openReader(userId);
+             JsonGenerator generator = jsonCodecs.factoryFor(format).createGenerator(out)) {
+            Reader database = stored != null ? stored : new StringReader(createEmptyDatabase());
+            generator.writeStartObject();
+            generator.writeFieldName("taskDatabase");
+            if (generator.canWriteBinaryNatively()) {
+                try (JsonParser parser = jsonCodecs.jsonFactory().createParser(database)) {
+                    parser.nextToken();
+                    generator.copyCurrentStructure(parser);
+                }
+            } else {
+                generator.writeString(database, -1);
             }
+            generator.writeStringField("lastSyncAt", response.getLastSyncAt().toString());
+            generator.writeStringField("message", response.getMessage());
+            generator.writeBooleanField("success", response.isSuccess());
+            generator.writeEndObject();
+        }
+    }
 
-            userService.updateLastSyncAt(userId);
+    /**
+     * Write the download response built from the materialized entity state
+     * instead of the uploaded blob. The database is always a nested object,
+     * holding the latest snapshot of every live task, project and category
+     * the user can see.
+     */
+    public void streamStateDownload(String userId, OutputStream out, MediaType format) throws IOException {
+        userService.touchLastSyncAt(userId);
+        SyncResponse response = SyncResponse.success(null, LocalDateTime.now());
 
-            return SyncResponse.success(taskDatabase, LocalDateTime.now());
+        try (JsonGenerator generator = jsonCodecs.factoryFor(format).createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeFieldName("taskDatabase");
+            deltaSyncService.streamCurrentDatabase(userId, generator);
+            generator.writeStringField("lastSyncAt", response.getLastSyncAt().toString());
+            generator.writeStringField("message", response.getMessage());
+            generator.writeBooleanField("success", response.isSuccess());
+            generator.writeEndObject();
+        }
+    }
 
-        } catch (Exception e) {
-            return SyncResponse.error("Erro ao fazer download do banco: " + e.getMessage());
+    /**
+     * Apply a JSON patch (RFC 6902) or merge patch (RFC 7396) to the stored
+     * database. When ifMatch is given it must match the current download
+     * ETag, otherwise the patch is rejected with PRECONDITION_FAILED.
+     */
+    public SyncResponse patchDatabase(String userId, JsonNode patch, boolean jsonPatch, String ifMatch) throws IOException {
+        JsonNode database;
+        try (Reader stored = taskDatabaseStore.openReaderForUpdate(userId)) {
+            database = jsonCodecs.treeReader().readValue(stored != null ? stored : new StringReader(createEmptyDatabase()));
+        }
+
+        if (ifMatch != null && !matchesETag(ifMatch, databaseVersionTag(userId))) {
+            throw new TaskinException("PRECONDITION_FAILED",
+                "Os dados foram alterados no servidor. Baixe a versão atual antes de enviar o patch");
+        }
+
+        database = jsonPatch ? JsonPatchUtil.applyJsonPatch(database, patch) : JsonPatchUtil.applyMergePatch(database, patch);
+        if (!database.path("tasks").isArray() || !database.path("categories").isArray()) {
+            throw new TaskinException("INVALID_PATCH", "O resultado deve conter 'tasks' e 'categories' como listas");
         }
+
+        JsonNode patched = database;
+        taskDatabaseStore.save(userId, out -> jsonCodecs.treeWriter().writeValue(out, patched));
+        userService.markTaskDatabaseUpdated(userId);
+
+        return SyncResponse.success(null, LocalDateTime.now());
     }
 
-    private void validateJsonFormat(String jsonData) {
-        try {
-            JsonNode node = objectMapper.readTree(jsonData);
+    /**
+     * Chunk hashes from the list that still have to be uploaded.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findMissingChunks(String userId, List<String> chunks) {
+        return syncChunkStore.findMissing(userId, chunks);
+    }
 
-            if (!node.has("tasks") || !node.has("categories")) {
-                throw new RuntimeException("Formato inválido: deve conter 'tasks' e 'categories'");
-            }
+    public void uploadChunk(String userId, String hash, byte[] content) throws IOException {
+        syncChunkStore.put(userId, hash, content);
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("Formato JSON inválido: " + e.getMessage());
+    /**
+     * Replace the stored database with the one assembled from the listed
+     * chunks. Returns the chunks still missing; nothing is committed unless
+     * the list is empty.
+     */
+    public List<String> commitChunkedUpload(String userId, List<String> chunks) throws IOException {
+        List<String> missing = taskDatabaseStore.commitManifest(userId, chunks,
+            content -> validateAndCopy(jsonCodecs.jsonFactory().createParser(content), OutputStream.nullOutputStream()));
+        if (missing.isEmpty()) {
+            userService.markTaskDatabaseUpdated(userId);
         }
+        return missing;
     }
 
-    private String mergeWithExistingData(String existingData, String newData) {
-        try {
-            if (!StringUtils.hasText(existingData)) {
-                return newData;
-            }
+    public LocalDateTime getLastSyncAt(String userId) {
+        return userService.getLastSyncAt(userId);
+    }
 
-            JsonNode existingNode = objectMapper.readTree(existingData);
-            JsonNode newNode = objectMapper.readTree(newData);
+    @Transactional(readOnly = true)
+    public boolean hasTaskDatabase(String userId) {
+        return taskDatabaseStore.exists(userId);
+    }
+
+    /**
+     * Validator for the downloaded task database in the given format, read
+     * from its version column so an unchanged blob is never loaded. The
+     * format is part of the tag, since JSON, Smile and CBOR downloads of the
+     * same version are different representations.
+     */
+    @Transactional(readOnly = true)
+    public String getDownloadETag(String userId, MediaType format) {
+        return databaseVersionTag(userId) + "-" + format.getSubtype();
+    }
+
+    /**
+     * Validator for the state download in the given format; it follows the
+     * user's change feed.
+     */
+    @Transactional(readOnly = true)
+    public String getStateDownloadETag(String userId, MediaType format) {
+        return "state-" + deltaSyncService.getFeedETag(userId) + "-" + format.getSubtype();
+    }
+
+    private String databaseVersionTag(String userId) {
+        return "db-" + userService.getTaskDatabaseVersion(userId);
+    }
+
+    /**
+     * Record a download the client already had, without loading the blob.
+     */
+    public void recordUnchangedDownload(String userId) {
+        userService.touchLastSyncAt(userId);
+    }
 
-            String mergedData = performMerge(existingNode, newNode);
+    /**
+     * Validate the uploaded database and produce its stored (compact) form
+     * in one streaming pass, copying tokens straight from the parser to the
+     * generator instead of building a tree. Failures are checked exceptions
+     * so they do not mark the upload transaction for rollback.
+     */
+    private void validateAndCopy(JsonParser source, OutputStream stored) throws IOException {
+        boolean hasTasks = false;
+        boolean hasCategories = false;
 
-            return mergedData;
+        try (JsonParser parser = source;
+             JsonGenerator generator = jsonCodecs.jsonFactory().createGenerator(stored)) {
 
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Formato inválido: deve conter 'tasks' e 'categories'");
+            }
+            generator.copyCurrentEvent(parser);
+
+            JsonToken token;
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                hasTasks |= "tasks".equals(field);
+                hasCategories |= "categories".equals(field);
+
+                generator.copyCurrentEvent(parser);
+                parser.nextToken();
+                generator.copyCurrentStructure(parser);
+            }
+            if (token != JsonToken.END_OBJECT) {
+                throw new IOException("Objeto JSON incompleto");
+            }
+            generator.copyCurrentEvent(parser);
+
+            if (!hasTasks || !hasCategories) {
+                throw new IOException("Formato inválido: deve conter 'tasks' e 'categories'");
+            }
         } catch (Exception e) {
-            return newData;
+            throw new IOException("Formato JSON inválido: " + e.getMessage());
         }
     }
 
-    private String performMerge(JsonNode existingNode, JsonNode newNode) throws Exception {
-        return objectMapper.writeValueAsString(newNode);
+    // If-Match may list several entity tags, quoted and possibly weak. The
+    // precondition is on the stored version, so a download tag of any format
+    // (or a bare version tag) matches
+    private static boolean matchesETag(String ifMatch, String versionTag) {
+        for (String candidate : ifMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.length() >= 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+                tag = tag.substring(1, tag.length() - 1);
+            }
+            if (tag.equals(versionTag) || tag.startsWith(versionTag + "-")) {
+                return true;
+            }
+        }
+        return false;
     }
 
     private String createEmptyDatabase() {
         try {
-            return objectMapper.writeValueAsString(new EmptyDatabase());
+            return jsonCodecs.json().writeValueAsString(new EmptyDatabase());
         } catch (Exception e) {
             return "{\"tasks\": [], \"categories\": [], \"lastModified\": \"" + LocalDateTime.now() + "\"}";
         }
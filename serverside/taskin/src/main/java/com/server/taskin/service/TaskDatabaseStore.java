@@ -0,0 +1,265 @@
+package com.server.taskin.service;
+
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.model.SyncChunk;
+import com.server.taskin.model.TaskDatabaseBlob;
+import com.server.taskin.repository.TaskDatabaseBlobRepository;
+import com.server.taskin.util.BlobCodec;
+import com.server.taskin.util.ContentDefinedChunker;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Encoded storage for uploaded task databases. Content is written and read
+ * as streams, so callers never need the decoded database as one String.
+ * Rows either hold the whole encoded database or a manifest of chunks kept
+ * in {@link SyncChunkStore}.
+ */
+@Service
+@Transactional
+public class TaskDatabaseStore {
+
+    // Codec name of rows whose content is a newline separated chunk manifest
+    private static final String CHUNKED_CODEC = "chunked";
+    private static final String MANIFEST_SEPARATOR = "\n";
+    private static final int MAX_MANIFEST_SIZE = 100_000;
+    private static final Duration CHUNK_GRACE_PERIOD = Duration.ofHours(1);
+
+    @Value("${app.sync.blob.codec:deflate}")
+    private String codecName;
+
+    @Value("${app.sync.blob.chunked:true}")
+    private boolean chunked;
+
+    @Autowired
+    private SyncChunkStore syncChunkStore;
+
+    @Autowired
+    private TaskDatabaseBlobRepository taskDatabaseBlobRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BlobCodec writeCodec;
+
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface ContentValidator {
+        void validate(Reader content) throws IOException;
+    }
+
+    @PostConstruct
+    void init() {
+        writeCodec = BlobCodec.forName(codecName);
+    }
+
+    /**
+     * Replace the user's stored database with the bytes produced by the
+     * writer, encoded on the fly. With chunking enabled the content is cut
+     * into content-defined chunks and only chunks not stored yet are
+     * written.
+     */
+    public void save(String userId, ContentWriter content) throws IOException {
+        if (chunked) {
+            saveChunked(userId, content);
+            return;
+        }
+
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        CountingOutputStream raw = new CountingOutputStream(writeCodec.encode(encoded));
+        try (raw) {
+            content.writeTo(raw);
+        }
+
+        // Chunks of an earlier chunked version become unreferenced
+        store(userId, writeCodec.name(), encoded.toByteArray(), raw.count, List.of());
+    }
+
+    /**
+     * Point the user's database at a manifest of chunks uploaded by the
+     * client. The assembled content goes through the validator before it is
+     * committed. Returns the hashes that are not stored yet; the manifest is
+     * only committed when that list is empty.
+     */
+    public List<String> commitManifest(String userId, List<String> manifest, ContentValidator validator) throws IOException {
+        if (manifest.isEmpty() || manifest.size() > MAX_MANIFEST_SIZE) {
+            throw new TaskinException("INVALID_MANIFEST", "Lista de blocos vazia ou grande demais");
+        }
+
+        List<String> missing = syncChunkStore.findMissing(userId, manifest);
+        if (!missing.isEmpty()) {
+            return missing;
+        }
+
+        List<SyncChunk> chunks = syncChunkStore.load(userId, manifest);
+        try (Reader assembled = new InputStreamReader(SyncChunkStore.open(chunks), StandardCharsets.UTF_8)) {
+            validator.validate(assembled);
+        }
+
+        long rawSize = chunks.stream().mapToLong(SyncChunk::getRawSize).sum();
+        store(userId, CHUNKED_CODEC, String.join(MANIFEST_SEPARATOR, manifest).getBytes(StandardCharsets.UTF_8),
+            rawSize, manifest);
+        return List.of();
+    }
+
+    private void saveChunked(String userId, ContentWriter content) throws IOException {
+        List<String> manifest = new ArrayList<>();
+        Map<String, byte[]> pending = new LinkedHashMap<>();
+
+        ContentDefinedChunker chunker = new ContentDefinedChunker(chunk -> {
+            String hash = ContentDefinedChunker.hash(chunk);
+            manifest.add(hash);
+            pending.putIfAbsent(hash, chunk);
+        });
+        try (chunker) {
+            content.writeTo(chunker);
+        }
+
+        // Writers validate while they copy, so nothing is stored until the
+        // whole content went through; a rejected upload leaves no chunks
+        syncChunkStore.putAll(userId, pending);
+        store(userId, CHUNKED_CODEC, String.join(MANIFEST_SEPARATOR, manifest).getBytes(StandardCharsets.UTF_8),
+            chunker.getTotalBytes(), manifest);
+    }
+
+    private void store(String userId, String codec, byte[] content, long rawSize, List<String> referencedChunks) {
+        TaskDatabaseBlob blob = taskDatabaseBlobRepository.findById(userId).orElseGet(() -> new TaskDatabaseBlob(userId));
+        boolean wasChunked = CHUNKED_CODEC.equals(blob.getCodec());
+
+        blob.setCodec(codec);
+        blob.setContent(content);
+        blob.setRawSize(rawSize);
+        blob.setUpdatedAt(LocalDateTime.now());
+        taskDatabaseBlobRepository.save(blob);
+
+        if (wasChunked || !referencedChunks.isEmpty()) {
+            syncChunkStore.deleteUnreferenced(userId, new HashSet<>(referencedChunks),
+                LocalDateTime.now().minus(CHUNK_GRACE_PERIOD));
+        }
+    }
+
+    /**
+     * Open the user's stored database as decoded UTF-8 text, or return null
+     * when nothing was uploaded yet.
+     */
+    @Transactional(readOnly = true)
+    public Reader openReader(String userId) throws IOException {
+        return decode(taskDatabaseBlobRepository.findById(userId).orElse(null));
+    }
+
+    /**
+     * Like {@link #openReader}, but locks the stored row until the calling
+     * transaction ends, for read-modify-write updates.
+     */
+    public Reader openReaderForUpdate(String userId) throws IOException {
+        return decode(taskDatabaseBlobRepository.findForUpdate(userId).orElse(null));
+    }
+
+    @Transactional(readOnly = true)
+    public boolean exists(String userId) {
+        return taskDatabaseBlobRepository.existsById(userId);
+    }
+
+    /**
+     * Move one page of databases still stored in the legacy users.task_database
+     * column into this store. Returns the number of moved rows; 0 also when
+     * the column does not exist.
+     */
+    public int migrateLegacyColumn(int pageSize) throws IOException {
+        if (!hasLegacyColumn()) {
+            return 0;
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+            "SELECT id, task_database FROM users WHERE task_database IS NOT NULL LIMIT ?", pageSize);
+        for (Map<String, Object> row : rows) {
+            String userId = (String) row.get("id");
+            String taskDatabase = (String) row.get("task_database");
+            save(userId, out -> out.write(taskDatabase.getBytes(StandardCharsets.UTF_8)));
+            jdbcTemplate.update("UPDATE users SET task_database = NULL WHERE id = ?", userId);
+        }
+        return rows.size();
+    }
+
+    // The column is left behind by earlier schema versions and not mapped anymore
+    private boolean hasLegacyColumn() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            for (String[] names : new String[][] { { "users", "task_database" }, { "USERS", "TASK_DATABASE" } }) {
+                try (ResultSet columns = metaData.getColumns(null, null, names[0], names[1])) {
+                    if (columns.next()) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }));
+    }
+
+    private Reader decode(TaskDatabaseBlob blob) throws IOException {
+        if (blob == null) {
+            return null;
+        }
+
+        InputStream decoded;
+        if (CHUNKED_CODEC.equals(blob.getCodec())) {
+            List<String> manifest = List.of(new String(blob.getContent(), StandardCharsets.UTF_8).split(MANIFEST_SEPARATOR));
+            List<SyncChunk> chunks = syncChunkStore.load(blob.getUserId(), manifest);
+            if (chunks == null) {
+                throw new IOException("Stored task database references missing chunks");
+            }
+            decoded = SyncChunkStore.open(chunks);
+        } else {
+            decoded = BlobCodec.forName(blob.getCodec()).decode(new ByteArrayInputStream(blob.getContent()));
+        }
+        return new InputStreamReader(decoded, StandardCharsets.UTF_8);
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -11,13 +11,18 @@ import com.server.taskin.model.User;
 import com.server.taskin.repository.TeamMemberRepository;
 import com.server.taskin.repository.TeamRepository;
 import com.server.taskin.repository.UserRepository;
+import com.server.taskin.security.PrincipalCache;
+import com.server.taskin.util.ValidationUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,6 +38,9 @@ public class TeamService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     /**
      * Create a new team
      */
@@ -43,6 +51,7 @@ public class TeamService {
         // Add creator as owner
         TeamMember ownerMember = new TeamMember(team, createdBy, "owner");
         teamMemberRepository.save(ownerMember);
+        membershipChanged(List.of(createdBy));
 
         return new TeamResponse(team, 1, "owner");
     }
@@ -110,7 +119,11 @@ public class TeamService {
             throw new TaskinException("ACCESS_DENIED", "Apenas o proprietário pode deletar a equipe");
         }
 
+        List<String> memberIds = teamMemberRepository.findByTeamId(teamId).stream()
+            .map(TeamMember::getUserId)
+            .collect(Collectors.toList());
         teamRepository.delete(team);
+        membershipChanged(memberIds);
     }
 
     /**
@@ -126,7 +139,7 @@ public class TeamService {
         }
 
         // Find user by email
-        User userToAdd = userRepository.findByEmail(request.getEmail())
+        User userToAdd = userRepository.findByEmail(ValidationUtil.normalizeEmail(request.getEmail()))
             .orElseThrow(() -> new TaskinException("USER_NOT_FOUND", "Usuário não encontrado"));
 
         // Check if already a member
@@ -136,6 +149,7 @@ public class TeamService {
 
         TeamMember newMember = new TeamMember(team, userToAdd.getId(), "member");
         newMember = teamMemberRepository.save(newMember);
+        membershipChanged(List.of(userToAdd.getId()));
 
         return new TeamMemberResponse(
             newMember.getId(),
@@ -167,6 +181,7 @@ public class TeamService {
         }
 
         teamMemberRepository.deleteByTeamIdAndUserId(teamId, memberUserId);
+        membershipChanged(List.of(memberUserId));
     }
 
     /**
@@ -214,10 +229,21 @@ public class TeamService {
         }
 
         teamMemberRepository.deleteByTeamIdAndUserId(teamId, userId);
+        membershipChanged(List.of(userId));
     }
 
     // Helper methods
 
+    // Only the team claims in these users' tokens are stale from now on; their
+    // identity claims stay trusted, so their other requests keep skipping the user lookup
+    private void membershipChanged(Collection<String> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        userRepository.incrementTeamEpochs(userIds);
+        eventPublisher.publishEvent(new PrincipalCache.PrincipalChanged(Set.copyOf(userIds), Set.of()));
+    }
+
     private boolean isMember(String teamId, String userId) {
         return teamMemberRepository.existsByTeamIdAndUserId(teamId, userId);
     }
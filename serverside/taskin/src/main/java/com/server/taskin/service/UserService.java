@@ -1,10 +1,21 @@
 package com.server.taskin.service;
 
+import com.server.taskin.model.AppliedMigration;
 import com.server.taskin.model.User;
+import com.server.taskin.repository.AppliedMigrationRepository;
 import com.server.taskin.repository.UserRepository;
+import com.server.taskin.security.PrincipalCache;
+import com.server.taskin.security.UserCredentials;
+import com.server.taskin.util.ValidationUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -12,27 +23,65 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @Transactional
-public class UserService implements UserDetailsService {
+public class UserService implements UserDetailsService, UserDetailsPasswordService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserService.class);
+
+    static final String EMAIL_MIGRATION = "normalize-user-emails";
+
+    private static final String EMAIL_INDEX_SQL =
+        "CREATE UNIQUE INDEX IF NOT EXISTS uk_users_email_lower ON users (LOWER(email))";
 
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AppliedMigrationRepository appliedMigrationRepository;
+
+    @Autowired
+    private LastSyncCoalescer lastSyncCoalescer;
+
     @Autowired
     @Lazy
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Credentials for the login path, selected without loading the entity.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        User user = userRepository.findActiveUserByEmail(username)
+        return userRepository.findActiveCredentialsForLogin(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Usuário não encontrado: " + username));
-        return user;
+    }
+
+    /**
+     * Store a rehash of the user's password, made with the current BCrypt
+     * cost after a successful login. Not a credential change, so issued
+     * tokens stay valid.
+     */
+    @Override
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        UserCredentials credentials = (UserCredentials) userDetails;
+        if (userRepository.updatePasswordHash(credentials.getId(), newPassword) == 0) {
+            throw new UsernameNotFoundException("Usuário não encontrado: " + credentials.getUsername());
+        }
+        return credentials.withPassword(newPassword);
     }
 
     public User createUser(String email, String password, String name) {
+        email = ValidationUtil.normalizeEmail(email);
         if (userRepository.existsByEmail(email)) {
             throw new RuntimeException("Email já está em uso");
         }
@@ -47,7 +96,7 @@ public class UserService implements UserDetailsService {
     }
 
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        return userRepository.findByEmail(ValidationUtil.normalizeEmail(email));
     }
 
     public User findById(String id) {
@@ -55,31 +104,51 @@ public class UserService implements UserDetailsService {
                 .orElseThrow(() -> new RuntimeException("Usuário não encontrado"));
     }
 
-    public User updateTaskDatabase(String userId, String taskDatabase) {
+    /**
+     * Record an upload stored in TaskDatabaseStore.
+     */
+    public User markTaskDatabaseUpdated(String userId) {
         User user = findById(userId);
-        user.setTaskDatabase(taskDatabase);
+        user.setTaskDatabaseVersion(currentVersion(user) + 1);
         user.setLastSyncAt(LocalDateTime.now());
         return userRepository.save(user);
     }
 
-    public String getTaskDatabase(String userId) {
-        Optional<String> taskDatabase = userRepository.findTaskDatabaseByUserId(userId);
-        return taskDatabase.orElse(null);
+    /**
+     * Version of the stored task database, read without loading the blob.
+     */
+    public long getTaskDatabaseVersion(String userId) {
+        return userRepository.findTaskDatabaseVersionByUserId(userId).orElse(0L);
     }
 
-    public User updateLastSyncAt(String userId) {
-        User user = findById(userId);
-        user.setLastSyncAt(LocalDateTime.now());
-        return userRepository.save(user);
+    /**
+     * Record a sync. The time is buffered and written with other users' in
+     * the next LastSyncCoalescer flush.
+     */
+    public void touchLastSyncAt(String userId) {
+        lastSyncCoalescer.record(userId, LocalDateTime.now());
+    }
+
+    /**
+     * Last sync time of the user, including one not flushed yet.
+     */
+    public LocalDateTime getLastSyncAt(String userId) {
+        return lastSyncCoalescer.latest(userId, userRepository.findLastSyncAtByUserId(userId).orElse(null));
+    }
+
+    // Tokens issued with the previous epoch stop being trusted by their claims
+    private static void bumpAuthEpoch(User user) {
+        user.setAuthEpoch((user.getAuthEpoch() != null ? user.getAuthEpoch() : 0L) + 1);
+    }
+
+    private static long currentVersion(User user) {
+        return user.getTaskDatabaseVersion() != null ? user.getTaskDatabaseVersion() : 0L;
     }
 
     public boolean authenticateUser(String email, String password) {
-        Optional<User> userOpt = userRepository.findActiveUserByEmail(email);
-        if (userOpt.isPresent()) {
-            User user = userOpt.get();
-            return passwordEncoder.matches(password, user.getPassword());
-        }
-        return false;
+        Optional<UserCredentials> credentials =
+            userRepository.findActiveCredentialsForLogin(email);
+        return credentials.isPresent() && passwordEncoder.matches(password, credentials.get().getPassword());
     }
 
     public User save(User user) {
@@ -87,21 +156,27 @@ public class UserService implements UserDetailsService {
     }
 
     public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
+        return userRepository.existsByEmail(ValidationUtil.normalizeEmail(email));
     }
 
     public User updateUser(String userId, String name, String email) {
         User user = findById(userId);
+        email = ValidationUtil.normalizeEmail(email);
 
         // Check if email is being changed and if it's already in use by another user
         if (!user.getEmail().equals(email) && existsByEmail(email)) {
             throw new RuntimeException("Email já está em uso por outro usuário");
         }
 
+        String previousEmail = user.getEmail();
         user.setName(name);
         user.setEmail(email);
+        bumpAuthEpoch(user);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new PrincipalCache.PrincipalChanged(
+            Set.of(userId), Set.copyOf(List.of(previousEmail, email))));
+        return saved;
     }
 
     public User changePassword(String userId, String currentPassword, String newPassword) {
@@ -119,7 +194,85 @@ public class UserService implements UserDetailsService {
 
         // Update password
         user.setPassword(passwordEncoder.encode(newPassword));
+        bumpAuthEpoch(user);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new PrincipalCache.PrincipalChanged(Set.of(userId), Set.of(user.getEmail())));
+        return saved;
+    }
+
+    /**
+     * Lowercase emails stored before they were normalized, once. Rows whose
+     * lowercase form is already taken by another account are left as they
+     * are, since merging accounts needs a person, and are reported with the
+     * account they collide with. The migration is only recorded as applied
+     * when no collision is left, so unresolved ones are reported again on
+     * every start instead of staying unreachable unnoticed.
+     */
+    public int normalizeStoredEmails() {
+        if (appliedMigrationRepository.existsById(EMAIL_MIGRATION)) {
+            return 0;
+        }
+
+        int normalized = 0;
+        int collisions = 0;
+        for (User user : userRepository.findUsersWithMixedCaseEmail()) {
+            String email = ValidationUtil.normalizeEmail(user.getEmail());
+            Optional<User> existing = userRepository.findByEmail(email);
+            if (existing.isPresent()) {
+                // Logins with this email now reach the existing account only
+                logger.warn("Email {} of user {} collides with user {} once lowercased; "
+                    + "user {} can only log in with the exact stored email until it is changed or the accounts are merged",
+                    user.getEmail(), user.getId(), existing.get().getId(), user.getId());
+                collisions++;
+                continue;
+            }
+            String previousEmail = user.getEmail();
+            user.setEmail(email);
+            bumpAuthEpoch(user);
+            userRepository.save(user);
+            eventPublisher.publishEvent(new PrincipalCache.PrincipalChanged(
+                Set.of(user.getId()), Set.of(previousEmail, email)));
+            normalized++;
+        }
+
+        if (collisions == 0) {
+            appliedMigrationRepository.save(new AppliedMigration(EMAIL_MIGRATION, LocalDateTime.now()));
+        } else {
+            logger.warn("{} user emails collide with other accounts; email normalization will run again on next start",
+                collisions);
+        }
+        return normalized;
+    }
+
+    /**
+     * Back the lowercase email rule with a unique index on lower(email) once
+     * every stored email is normalized; it would fail while collisions
+     * remain. PostgreSQL only, as H2 (dev and tests) has no expression
+     * indexes; there the plain unique index holds, since every write stores
+     * the lowercase form.
+     */
+    public void ensureCaseInsensitiveEmailIndex() {
+        if (!appliedMigrationRepository.existsById(EMAIL_MIGRATION)) {
+            return;
+        }
+        boolean postgres = Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection ->
+            "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName())));
+        if (postgres) {
+            jdbcTemplate.execute(EMAIL_INDEX_SQL);
+        }
+    }
+
+    /**
+     * Disable the account. Its tokens stop authenticating once this commits.
+     */
+    public User disableUser(String userId) {
+        User user = findById(userId);
+        user.setEnabled(false);
+        bumpAuthEpoch(user);
+
+        User saved = userRepository.save(user);
+        eventPublisher.publishEvent(new PrincipalCache.PrincipalChanged(Set.of(userId), Set.of(user.getEmail())));
+        return saved;
     }
 }
\ No newline at end of file
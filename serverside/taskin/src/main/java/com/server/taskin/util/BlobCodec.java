@@ -0,0 +1,76 @@
+package com.server.taskin.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compression applied to stored blobs. The codec name is saved next to each
+ * blob, so the write codec can change without rewriting existing rows.
+ */
+public interface BlobCodec {
+
+    BlobCodec DEFLATE = new BlobCodec() {
+        @Override
+        public String name() {
+            return "deflate";
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out) {
+            // close() only ends deflaters the stream created itself, so end ours
+            // there rather than holding native memory until it is collected
+            return new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED), 8192) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public InputStream decode(InputStream in) {
+            return new InflaterInputStream(in);
+        }
+    };
+
+    BlobCodec IDENTITY = new BlobCodec() {
+        @Override
+        public String name() {
+            return "identity";
+        }
+
+        @Override
+        public OutputStream encode(OutputStream out) {
+            return out;
+        }
+
+        @Override
+        public InputStream decode(InputStream in) {
+            return in;
+        }
+    };
+
+    String name();
+
+    OutputStream encode(OutputStream out) throws IOException;
+
+    InputStream decode(InputStream in) throws IOException;
+
+    static BlobCodec forName(String name) {
+        if (DEFLATE.name().equals(name)) {
+            return DEFLATE;
+        }
+        if (IDENTITY.name().equals(name)) {
+            return IDENTITY;
+        }
+        throw new IllegalArgumentException("Unknown blob codec: " + name);
+    }
+}
@@ -0,0 +1,126 @@
+package com.server.taskin.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Small in-memory memo of computed values. Entries expire after a fixed
+ * time and the oldest are evicted past the size limit. Concurrent callers
+ * for the same key share one computation; failed computations are not
+ * remembered. Entries still being computed are never evicted, so the map
+ * can briefly hold more than the limit while they run.
+ */
+public class BoundedTtlCache<K, V> {
+
+    private final int maxEntries;
+    private final long ttlMillis;
+
+    // Insertion ordered, so the eldest entry is also the first to expire
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>();
+
+    public BoundedTtlCache(int maxEntries, long ttlMillis) {
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Return the remembered value for the key, waiting for it if another
+     * caller is still computing it, or compute and remember it.
+     */
+    public V getOrCompute(K key, Supplier<V> compute) {
+        CompletableFuture<V> future;
+        boolean owner = false;
+
+        synchronized (entries) {
+            long now = System.currentTimeMillis();
+            evictExpired(now);
+
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                entry = new Entry<>(new CompletableFuture<>(), now + ttlMillis);
+                entries.put(key, entry);
+                owner = true;
+                evictOverflow();
+            }
+            future = entry.value;
+        }
+
+        if (owner) {
+            try {
+                future.complete(compute.get());
+            } catch (Throwable e) {
+                // Errors too, or callers waiting on the future would block forever
+                synchronized (entries) {
+                    entries.remove(key);
+                }
+                future.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Forget the value for the key. A computation still running for it
+     * completes for its waiters but is not remembered.
+     */
+    public void invalidate(K key) {
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            evictExpired(System.currentTimeMillis());
+            return entries.size();
+        }
+    }
+
+    private void evictExpired(long now) {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry<V> entry = iterator.next();
+            if (entry.expiresAt > now) {
+                break;
+            }
+            if (entry.value.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // Dropping an in-flight entry would let a concurrent caller start the same computation again
+    private void evictOverflow() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            if (iterator.next().value.isDone()) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final CompletableFuture<V> value;
+        private final long expiresAt;
+
+        private Entry(CompletableFuture<V> value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.server.taskin.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.SplittableRandom;
+
+/**
+ * Splits a byte stream into content-defined chunks with a gear rolling hash.
+ * Boundaries depend only on nearby bytes, so an edit changes the chunks
+ * around it and leaves the rest of the stream chunked identically.
+ * <p>
+ * Clients uploading chunked databases must use the same parameters: gear
+ * table from {@code SplittableRandom(GEAR_SEED)}, hash reset at every
+ * boundary, cut when the top 13 bits of the hash are zero once
+ * {@link #MIN_SIZE} bytes are in the chunk, forced cut at {@link #MAX_SIZE}. Chunks are identified by
+ * the lowercase hex SHA-256 of their bytes.
+ */
+public class ContentDefinedChunker extends OutputStream {
+
+    public static final int MIN_SIZE = 2 * 1024;
+    public static final int MAX_SIZE = 64 * 1024;
+    public static final long GEAR_SEED = 0x7461736B696EL; // "taskin"
+
+    // 13 bits: boundaries on average every 8 KiB past the minimum. The high
+    // bits are tested, as in FastCDC: each shift pushes older bytes out at
+    // the top, so they depend on the last 64 bytes while the low bits only
+    // see the last few
+    private static final long MASK = ((1L << 13) - 1) << (64 - 13);
+
+    private static final long[] GEAR = new long[256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(GEAR_SEED);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkSink {
+        void accept(byte[] chunk) throws IOException;
+    }
+
+    private final ChunkSink sink;
+    private final byte[] buffer = new byte[MAX_SIZE];
+    private int length;
+    private long hash;
+    private long total;
+
+    public ContentDefinedChunker(ChunkSink sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        buffer[length++] = (byte) b;
+        total++;
+        hash = (hash << 1) + GEAR[b & 0xFF];
+        if (length >= MAX_SIZE || (length >= MIN_SIZE && (hash & MASK) == 0)) {
+            emit();
+        }
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int count) throws IOException {
+        for (int i = offset; i < offset + count; i++) {
+            write(bytes[i]);
+        }
+    }
+
+    /**
+     * Emits the trailing partial chunk.
+     */
+    @Override
+    public void close() throws IOException {
+        if (length > 0) {
+            emit();
+        }
+    }
+
+    public long getTotalBytes() {
+        return total;
+    }
+
+    private void emit() throws IOException {
+        sink.accept(Arrays.copyOf(buffer, length));
+        length = 0;
+        hash = 0;
+    }
+
+    public static String hash(byte[] chunk) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(chunk));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * (De)serializers for String fields that hold JSON documents, such as entity
+ * snapshots. In JSON the field stays a string, as existing clients expect.
+ * Binary formats (Smile, CBOR) embed the document as a native nested value
+ * instead, so it is not escaped a second time.
+ * <p>
+ * Writers carrying {@link #RAW_JSON_ATTRIBUTE} (sync protocol 2) also
+ * embed the document in JSON, copied verbatim as a raw value.
+ * <p>
+ * Reading accepts a string, a nested object or array (converted back to
+ * compact JSON text), or binary UTF-8 JSON.
+ */
+public final class EmbeddedJson {
+
+    public static final String RAW_JSON_ATTRIBUTE = EmbeddedJson.class.getName() + ".raw";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private EmbeddedJson() {
+    }
+
+    /**
+     * Write a JSON document held as text. Binary generators always embed it;
+     * JSON generators embed it as a raw value when rawJson is set and write
+     * a string otherwise. Text that is not a JSON object or array is always
+     * written as a string.
+     */
+    public static void write(String value, JsonGenerator generator, boolean rawJson) throws IOException {
+        if (value == null) {
+            // Compacted tombstones carry no snapshot
+            generator.writeNull();
+            return;
+        }
+        if (!generator.canWriteBinaryNatively()) {
+            if (rawJson && isDocument(value)) {
+                generator.writeRawValue(value);
+            } else {
+                generator.writeString(value);
+            }
+            return;
+        }
+
+        TokenBuffer document = parse(value);
+        if (document == null) {
+            generator.writeString(value);
+            return;
+        }
+        document.serialize(generator);
+    }
+
+    // Tokenizes without decoding values, so a raw copy can never break the response
+    private static boolean isDocument(String value) {
+        try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+            // Only containers, so a JSON string in the response always means plain text
+            JsonToken first = parser.nextToken();
+            if (first == null || !first.isStructStart()) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Buffered first, so invalid text never leaves a half-written value behind
+    private static TokenBuffer parse(String value) {
+        try (JsonParser parser = JSON_FACTORY.createParser(value)) {
+            JsonToken first = parser.nextToken();
+            if (first == null || !first.isStructStart()) {
+                return null;
+            }
+            TokenBuffer buffer = new TokenBuffer(parser);
+            buffer.copyCurrentStructure(parser);
+            return parser.nextToken() == null ? buffer : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public static class Serializer extends StdSerializer<String> {
+
+        public Serializer() {
+            super(String.class);
+        }
+
+        @Override
+        public void serialize(String value, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            write(value, generator, Boolean.TRUE.equals(provider.getAttribute(RAW_JSON_ATTRIBUTE)));
+        }
+    }
+
+    public static class Deserializer extends StdDeserializer<String> {
+
+        public Deserializer() {
+            super(String.class);
+        }
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                StringWriter json = new StringWriter();
+                try (JsonGenerator generator = JSON_FACTORY.createGenerator(json)) {
+                    generator.copyCurrentStructure(parser);
+                }
+                return json.toString();
+            }
+            if (token == JsonToken.VALUE_EMBEDDED_OBJECT) {
+                return new String(parser.getBinaryValue(), StandardCharsets.UTF_8);
+            }
+            if (token == JsonToken.VALUE_STRING) {
+                return parser.getText();
+            }
+            return (String) context.handleUnexpectedToken(String.class, parser);
+        }
+    }
+}
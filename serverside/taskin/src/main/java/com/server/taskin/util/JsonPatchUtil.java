@@ -0,0 +1,367 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.server.taskin.exception.TaskinException;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies RFC 7396 merge patches and RFC 6902 JSON patches to a task
+ * database tree. Arrays of objects with an {@code id} (tasks, categories)
+ * can also be addressed by id, resolved through a per-array index instead
+ * of a scan:
+ * <ul>
+ *   <li>JSON patch: a non-numeric pointer segment into such an array is an
+ *   id, e.g. {@code /tasks/4f1c.../title}.</li>
+ *   <li>Merge patch: an object given for such an array is a map of id to
+ *   element merge patch; {@code null} removes the element and unknown ids
+ *   are appended.</li>
+ * </ul>
+ * Both patches modify the target in place.
+ */
+public class JsonPatchUtil {
+
+    private static final String ID_FIELD = "id";
+
+    private JsonPatchUtil() {}
+
+    /**
+     * Apply an RFC 7396 merge patch and return the patched document.
+     */
+    public static JsonNode applyMergePatch(JsonNode target, JsonNode patch) {
+        return new IdIndexes().merge(target, patch);
+    }
+
+    /**
+     * Apply an RFC 6902 patch. Operations run in order and the first failing
+     * one aborts the patch with an INVALID_PATCH error.
+     */
+    public static JsonNode applyJsonPatch(JsonNode target, JsonNode operations) {
+        if (!operations.isArray()) {
+            throw invalid("O patch deve ser uma lista de operações");
+        }
+
+        IdIndexes indexes = new IdIndexes();
+        JsonNode document = target;
+        for (JsonNode operation : operations) {
+            document = indexes.apply(document, operation);
+        }
+        return document;
+    }
+
+    private static TaskinException invalid(String message) {
+        return new TaskinException("INVALID_PATCH", message);
+    }
+
+    /**
+     * Lazily built id to position maps, one per array touched by the patch.
+     * An index is dropped whenever its array changes shape.
+     */
+    private static class IdIndexes {
+
+        private final Map<ArrayNode, Map<String, Integer>> byArray = new IdentityHashMap<>();
+
+        // --- RFC 7396 ---
+
+        JsonNode merge(JsonNode target, JsonNode patch) {
+            if (!patch.isObject()) {
+                return patch;
+            }
+            if (target != null && target.isArray() && isIdKeyed((ArrayNode) target)) {
+                mergeById((ArrayNode) target, (ObjectNode) patch);
+                return target;
+            }
+
+            ObjectNode result = target != null && target.isObject() ? (ObjectNode) target : JsonNodeFactory.instance.objectNode();
+            for (Map.Entry<String, JsonNode> field : patch.properties()) {
+                if (field.getValue().isNull()) {
+                    result.remove(field.getKey());
+                } else {
+                    result.set(field.getKey(), merge(result.get(field.getKey()), field.getValue()));
+                }
+            }
+            return result;
+        }
+
+        private void mergeById(ArrayNode array, ObjectNode patch) {
+            List<String> removed = new ArrayList<>();
+            for (Map.Entry<String, JsonNode> field : patch.properties()) {
+                Integer position = index(array).get(field.getKey());
+
+                if (field.getValue().isNull()) {
+                    removed.add(field.getKey());
+                } else if (position != null) {
+                    JsonNode merged = merge(array.get(position), field.getValue());
+                    array.set(position, merged);
+                    if (!field.getKey().equals(merged.path(ID_FIELD).asText())) {
+                        byArray.remove(array);
+                    }
+                } else {
+                    JsonNode element = merge(null, field.getValue());
+                    if (element.isObject() && !element.has(ID_FIELD)) {
+                        ((ObjectNode) element).put(ID_FIELD, field.getKey());
+                    }
+                    append(array, element);
+                }
+            }
+
+            // Removals shift positions, so they run after all lookups
+            if (!removed.isEmpty()) {
+                Map<String, Integer> index = index(array);
+                removed.stream()
+                    .map(index::get)
+                    .filter(position -> position != null)
+                    .sorted((a, b) -> b - a)
+                    .forEach(position -> array.remove(position.intValue()));
+                byArray.remove(array);
+            }
+        }
+
+        // --- RFC 6902 ---
+
+        JsonNode apply(JsonNode document, JsonNode operation) {
+            String op = operation.path("op").asText("");
+            String path = requiredText(operation, "path");
+
+            switch (op) {
+                case "add":
+                    return add(document, path, required(operation, "value").deepCopy());
+                case "remove":
+                    remove(document, path);
+                    return document;
+                case "replace":
+                    return replace(document, path, required(operation, "value").deepCopy());
+                case "move": {
+                    String from = requiredText(operation, "from");
+                    if (path.startsWith(from + "/")) {
+                        throw invalid("Não é possível mover um valor para dentro dele mesmo: " + from);
+                    }
+                    JsonNode value = resolve(document, from);
+                    remove(document, from);
+                    return add(document, path, value);
+                }
+                case "copy":
+                    return add(document, path, resolve(document, requiredText(operation, "from")).deepCopy());
+                case "test":
+                    if (!resolve(document, path).equals(required(operation, "value"))) {
+                        throw invalid("Teste falhou em " + path);
+                    }
+                    return document;
+                default:
+                    throw invalid("Operação desconhecida: " + op);
+            }
+        }
+
+        private JsonNode add(JsonNode document, String path, JsonNode value) {
+            if (path.isEmpty()) {
+                return value;
+            }
+
+            Pointer pointer = Pointer.parse(path);
+            JsonNode parent = resolveTokens(document, pointer.parent(), path);
+            String token = pointer.last();
+
+            if (parent.isObject()) {
+                ((ObjectNode) parent).set(token, value);
+            } else if (parent.isArray()) {
+                ArrayNode array = (ArrayNode) parent;
+                if ("-".equals(token)) {
+                    append(array, value);
+                } else {
+                    int position = position(array, token, path, true);
+                    array.insert(position, value);
+                    byArray.remove(array);
+                }
+            } else {
+                throw invalid("Caminho inexistente: " + path);
+            }
+            return document;
+        }
+
+        private JsonNode replace(JsonNode document, String path, JsonNode value) {
+            if (path.isEmpty()) {
+                return value;
+            }
+
+            Pointer pointer = Pointer.parse(path);
+            JsonNode parent = resolveTokens(document, pointer.parent(), path);
+            String token = pointer.last();
+
+            if (parent.isObject() && parent.has(token)) {
+                ((ObjectNode) parent).set(token, value);
+            } else if (parent.isArray()) {
+                ArrayNode array = (ArrayNode) parent;
+                int position = position(array, token, path, false);
+                JsonNode previous = array.set(position, value);
+                // Positions are unchanged; only a changed id invalidates the index
+                if (!previous.path(ID_FIELD).equals(value.path(ID_FIELD))) {
+                    byArray.remove(array);
+                }
+            } else {
+                throw invalid("Caminho inexistente: " + path);
+            }
+            return document;
+        }
+
+        private void remove(JsonNode document, String path) {
+            if (path.isEmpty()) {
+                throw invalid("Não é possível remover o documento inteiro");
+            }
+
+            Pointer pointer = Pointer.parse(path);
+            JsonNode parent = resolveTokens(document, pointer.parent(), path);
+            String token = pointer.last();
+
+            if (parent.isObject() && parent.has(token)) {
+                ((ObjectNode) parent).remove(token);
+            } else if (parent.isArray()) {
+                ArrayNode array = (ArrayNode) parent;
+                array.remove(position(array, token, path, false));
+                byArray.remove(array);
+            } else {
+                throw invalid("Caminho inexistente: " + path);
+            }
+        }
+
+        private JsonNode resolve(JsonNode document, String path) {
+            return resolveTokens(document, Pointer.parse(path).tokens, path);
+        }
+
+        private JsonNode resolveTokens(JsonNode document, List<String> tokens, String path) {
+            JsonNode current = document;
+            for (String token : tokens) {
+                if (current.isObject()) {
+                    current = current.get(token);
+                } else if (current.isArray()) {
+                    current = current.get(position((ArrayNode) current, token, path, false));
+                } else {
+                    current = null;
+                }
+                if (current == null) {
+                    throw invalid("Caminho inexistente: " + path);
+                }
+            }
+            return current;
+        }
+
+        private int position(ArrayNode array, String token, String path, boolean forInsert) {
+            int limit = forInsert ? array.size() : array.size() - 1;
+            if (isIndex(token)) {
+                int position = Integer.parseInt(token);
+                if (position > limit) {
+                    throw invalid("Índice fora do intervalo: " + path);
+                }
+                return position;
+            }
+
+            Integer position = index(array).get(token);
+            if (position == null) {
+                throw invalid("Elemento não encontrado: " + path);
+            }
+            return position;
+        }
+
+        // --- shared ---
+
+        private void append(ArrayNode array, JsonNode value) {
+            array.add(value);
+            Map<String, Integer> index = byArray.get(array);
+            if (index != null && value.hasNonNull(ID_FIELD)) {
+                index.putIfAbsent(value.get(ID_FIELD).asText(), array.size() - 1);
+            }
+        }
+
+        private Map<String, Integer> index(ArrayNode array) {
+            return byArray.computeIfAbsent(array, key -> {
+                Map<String, Integer> index = new HashMap<>(key.size() * 2);
+                for (int i = 0; i < key.size(); i++) {
+                    JsonNode id = key.get(i).get(ID_FIELD);
+                    if (id != null && !id.isNull()) {
+                        index.putIfAbsent(id.asText(), i);
+                    }
+                }
+                return index;
+            });
+        }
+
+        // An empty or mixed array is replaced by an object patch, as RFC 7396 says
+        private static boolean isIdKeyed(ArrayNode array) {
+            if (array.isEmpty()) {
+                return false;
+            }
+            for (JsonNode element : array) {
+                if (!element.isObject() || !element.has(ID_FIELD)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isIndex(String token) {
+            if (token.isEmpty() || token.length() > 9 || (token.length() > 1 && token.charAt(0) == '0')) {
+                return false;
+            }
+            for (int i = 0; i < token.length(); i++) {
+                if (!Character.isDigit(token.charAt(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static JsonNode required(JsonNode operation, String field) {
+            JsonNode value = operation.get(field);
+            if (value == null) {
+                throw invalid("Campo '" + field + "' ausente na operação");
+            }
+            return value;
+        }
+
+        private static String requiredText(JsonNode operation, String field) {
+            JsonNode value = required(operation, field);
+            if (!value.isTextual()) {
+                throw invalid("Campo '" + field + "' deve ser texto");
+            }
+            return value.asText();
+        }
+    }
+
+    // RFC 6901 JSON pointer
+    private static class Pointer {
+        private final List<String> tokens;
+
+        private Pointer(List<String> tokens) {
+            this.tokens = tokens;
+        }
+
+        static Pointer parse(String path) {
+            if (path.isEmpty()) {
+                return new Pointer(List.of());
+            }
+            if (path.charAt(0) != '/') {
+                throw invalid("Caminho inválido: " + path);
+            }
+
+            List<String> tokens = new ArrayList<>();
+            for (String raw : path.substring(1).split("/", -1)) {
+                tokens.add(raw.replace("~1", "/").replace("~0", "~"));
+            }
+            return new Pointer(tokens);
+        }
+
+        List<String> parent() {
+            return tokens.subList(0, tokens.size() - 1);
+        }
+
+        String last() {
+            return tokens.get(tokens.size() - 1);
+        }
+    }
+}
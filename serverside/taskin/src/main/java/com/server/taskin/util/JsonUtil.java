@@ -1,20 +1,34 @@
 package com.server.taskin.util;
 
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 
 import java.time.LocalDateTime;
 
 public class JsonUtil {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    // For code outside the Spring context; beans use JsonCodecs instead
+    private static final ObjectMapper objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
 
+    /**
+     * Checks the text is exactly one JSON value, tokenizing it without
+     * building a tree.
+     */
     public static boolean isValidJson(String json) {
-        try {
-            objectMapper.readTree(json);
-            return true;
+        if (json == null) {
+            return false;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            if (parser.nextToken() == null) {
+                return false;
+            }
+            parser.skipChildren();
+            return parser.nextToken() == null;
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,123 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The few top-level fields of a sync data snapshot the server cares about.
+ * Read with a single streaming pass that skips everything else, so no tree
+ * or map is built for the snapshot.
+ */
+public class SnapshotFields {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final SnapshotFields EMPTY = new SnapshotFields(0, null, null);
+
+    private final int version;
+    private final String teamId;
+    private final LocalDateTime updatedAt;
+
+    private SnapshotFields(int version, String teamId, LocalDateTime updatedAt) {
+        this.version = version;
+        this.teamId = teamId;
+        this.updatedAt = updatedAt;
+    }
+
+    /**
+     * Parse {@code version}, {@code teamId} and {@code updatedAt}. Missing or
+     * malformed values fall back to 0 / null, as does unparseable JSON.
+     */
+    public static SnapshotFields parse(String json) {
+        if (json == null || json.isEmpty()) {
+            return EMPTY;
+        }
+
+        int version = 0;
+        String teamId = null;
+        LocalDateTime updatedAt = null;
+
+        try (JsonParser parser = JSON_FACTORY.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return EMPTY;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "version":
+                        version = readVersion(parser, value);
+                        break;
+                    case "teamId":
+                        teamId = value == JsonToken.VALUE_NULL ? null : parser.getValueAsString();
+                        break;
+                    case "updatedAt":
+                        updatedAt = value == JsonToken.VALUE_STRING ? parseTimestamp(parser.getText()) : null;
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+        } catch (Exception e) {
+            return EMPTY;
+        }
+
+        return new SnapshotFields(version, teamId, updatedAt);
+    }
+
+    private static int readVersion(JsonParser parser, JsonToken value) throws Exception {
+        if (value == JsonToken.VALUE_NUMBER_INT) {
+            return parser.getIntValue();
+        }
+        if (value == JsonToken.VALUE_STRING) {
+            try {
+                return Integer.parseInt(parser.getText());
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    // Clients send ISO timestamps with or without an offset. The form is
+    // picked up front, since a failed parse throws and costs more than the
+    // rest of the snapshot
+    private static LocalDateTime parseTimestamp(String text) {
+        try {
+            if (hasOffset(text)) {
+                return OffsetDateTime.parse(text).atZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+            }
+            return LocalDateTime.parse(text);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasOffset(String text) {
+        int time = text.indexOf('T');
+        if (time < 0) {
+            return false;
+        }
+        char last = text.charAt(text.length() - 1);
+        return last == 'Z' || last == 'z' || text.indexOf('+', time) > 0 || text.indexOf('-', time) > 0;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public String getTeamId() {
+        return teamId;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,36 @@
+package com.server.taskin.util;
+
+import com.server.taskin.exception.TaskinException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque change-feed cursor. Clients must treat it as an arbitrary string;
+ * internally it wraps the last sync sequence number they have seen.
+ */
+public class SyncCursor {
+
+    private static final String PREFIX = "s1:";
+
+    public static String encode(long sequence) {
+        return Base64.getUrlEncoder().withoutPadding()
+            .encodeToString((PREFIX + sequence).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException("Unknown cursor version");
+            }
+            long sequence = Long.parseLong(raw.substring(PREFIX.length()));
+            if (sequence < 0) {
+                throw new IllegalArgumentException("Negative sequence");
+            }
+            return sequence;
+        } catch (IllegalArgumentException e) {
+            throw new TaskinException("INVALID_CURSOR", "Cursor de sincronização inválido");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.server.taskin.util;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Sync protocol versions clients can ask for with the {@value #HEADER}
+ * request header. Version 1 (the default) sends entity snapshots as JSON
+ * strings; version 2 embeds them as JSON objects.
+ */
+public final class SyncProtocol {
+
+    public static final String HEADER = "X-Sync-Protocol";
+    public static final int EMBEDDED_SNAPSHOTS = 2;
+
+    private SyncProtocol() {
+    }
+
+    public static int requested(String header) {
+        if (header == null || header.isBlank()) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(header.trim());
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    public static boolean embedsSnapshots(String header) {
+        return requested(header) >= EMBEDDED_SNAPSHOTS;
+    }
+
+    /**
+     * Whether the request being handled on this thread asked for embedded
+     * snapshots; false outside of a request.
+     */
+    public static boolean currentRequestEmbedsSnapshots() {
+        if (RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes) {
+            HttpServletRequest request = attributes.getRequest();
+            return embedsSnapshots(request.getHeader(HEADER));
+        }
+        return false;
+    }
+}
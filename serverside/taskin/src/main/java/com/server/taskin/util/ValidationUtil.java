@@ -1,5 +1,6 @@
 package com.server.taskin.util;
 
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 public class ValidationUtil {
@@ -17,6 +18,17 @@ public class ValidationUtil {
         return EMAIL_PATTERN.matcher(email.trim()).matches();
     }
 
+    /**
+     * Form emails are stored and looked up in, so addresses differing only
+     * in case belong to one account.
+     */
+    public static String normalizeEmail(String email) {
+        if (email == null) {
+            return null;
+        }
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public static boolean isValidPassword(String password) {
         if (password == null || password.length() < 6) {
             return false;
@@ -50,14 +62,7 @@ public class ValidationUtil {
             return false;
         }
 
-        try {
-            com.fasterxml.jackson.databind.ObjectMapper mapper =
-                new com.fasterxml.jackson.databind.ObjectMapper();
-            mapper.readTree(json);
-            return true;
-        } catch (Exception e) {
-            return false;
-        }
+        return JsonUtil.isValidJson(json);
     }
 
     public static class ValidationResult {
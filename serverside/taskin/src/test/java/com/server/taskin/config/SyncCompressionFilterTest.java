@@ -0,0 +1,138 @@
+package com.server.taskin.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class SyncCompressionFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final SyncCompressionFilter filter = new SyncCompressionFilter(meterRegistry, 1024, 64 * 1024);
+
+    @Test
+    void inflatesGzipRequestBodies() throws Exception {
+        byte[] body = "{\"tasks\":[],\"categories\":[]}".getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = gzipRequest(body);
+        byte[][] seen = new byte[1][];
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            assertNull(((HttpServletRequest) req).getHeader("Content-Encoding"));
+            seen[0] = req.getInputStream().readAllBytes();
+        });
+
+        assertArrayEquals(body, seen[0]);
+        assertEquals(1, meterRegistry.find(SyncCompressionFilter.RATIO_METRIC).tag("direction", "request").summary().count());
+    }
+
+    @Test
+    void rejectsBodiesInflatingPastTheLimit() throws Exception {
+        MockHttpServletRequest request = gzipRequest(new byte[128 * 1024]);
+
+        assertThrows(SyncCompressionFilter.DecompressionLimitExceededException.class, () ->
+            filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> req.getInputStream().readAllBytes()));
+    }
+
+    @Test
+    void compressesOnlyLargeJsonResponses() throws Exception {
+        byte[] large = "{\"id\":\"task\"},".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        MockHttpServletResponse compressed = respond(large);
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        assertArrayEquals(large, new GZIPInputStream(new ByteArrayInputStream(compressed.getContentAsByteArray())).readAllBytes());
+
+        MockHttpServletResponse plain = respond("{}".getBytes(StandardCharsets.UTF_8));
+        assertNull(plain.getHeader("Content-Encoding"));
+        assertEquals("{}", plain.getContentAsString());
+    }
+
+    @Test
+    void honoursZeroQualityForGzip() throws Exception {
+        byte[] large = "{\"id\":\"task\"},".repeat(500).getBytes(StandardCharsets.UTF_8);
+
+        assertNull(respond(large, "gzip;q=0, deflate").getHeader("Content-Encoding"));
+        assertNull(respond(large, "*;q=0.5, gzip;q=0").getHeader("Content-Encoding"));
+        assertEquals("gzip", respond(large, "deflate, *;q=0.1").getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void resetDiscardsCompressedBody() throws Exception {
+        byte[] large = "{\"id\":\"task\"},".repeat(500).getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sync/download");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(large);
+            res.reset();
+            res.setContentType("application/json");
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertNull(response.getHeader("Content-Encoding"));
+        assertEquals("{}", response.getContentAsString());
+    }
+
+    @Test
+    void resetBufferCompressesTheNewBodyAgain() throws Exception {
+        byte[] large = "{\"id\":\"task\"},".repeat(500).getBytes(StandardCharsets.UTF_8);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sync/download");
+        request.addHeader("Accept-Encoding", "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(large);
+            res.resetBuffer();
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("gzip", response.getHeader("Content-Encoding"));
+        assertEquals("{}", new String(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray())).readAllBytes(),
+            StandardCharsets.UTF_8));
+    }
+
+    private MockHttpServletResponse respond(byte[] body) throws Exception {
+        return respond(body, "gzip, deflate");
+    }
+
+    private MockHttpServletResponse respond(byte[] body, String acceptEncoding) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sync/download");
+        request.addHeader("Accept-Encoding", acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(body);
+            ((HttpServletResponse) res).setContentLength(body.length);
+        });
+        return response;
+    }
+
+    private static MockHttpServletRequest gzipRequest(byte[] body) throws IOException {
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(encoded)) {
+            gzip.write(body);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/sync/upload");
+        request.addHeader("Content-Encoding", "gzip");
+        request.setContentType("application/json");
+        request.setContent(encoded.toByteArray());
+        return request;
+    }
+}
@@ -0,0 +1,115 @@
+package com.server.taskin.config;
+
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.model.SyncLog;
+import com.server.taskin.repository.EntityHeadRepository;
+import com.server.taskin.repository.SharedTaskRepository;
+import com.server.taskin.repository.SyncLogRepository;
+import com.server.taskin.service.DeltaSyncService;
+import com.server.taskin.service.SyncSequenceService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncLogCompactorTest {
+
+    private static final String USER_ID = "compaction-user";
+
+    @Autowired
+    private SyncLogCompactor syncLogCompactor;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private SyncSequenceService syncSequenceService;
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    @Autowired
+    private EntityHeadRepository entityHeadRepository;
+
+    @Autowired
+    private SharedTaskRepository sharedTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sharedTaskRepository.deleteAllInBatch();
+        entityHeadRepository.deleteAllInBatch();
+        syncLogRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void keepsLatestStatePerEntityAndTombstones() {
+        sync(change("task-live", "create", 1), change("task-gone", "create", 1));
+        sync(change("task-live", "update", 2), change("task-gone", "delete", 2));
+        sync(change("task-live", "update", 3));
+
+        int removed = syncLogCompactor.compact();
+
+        assertEquals(3, removed);
+        Map<String, SyncLog> remaining = syncLogRepository.findAll().stream()
+            .collect(Collectors.toMap(SyncLog::getEntityId, log -> log));
+        assertEquals(2, remaining.size());
+        assertEquals("update", remaining.get("task-live").getAction());
+        assertTrue(remaining.get("task-live").getDataSnapshot().contains("\"version\":3"));
+        assertEquals("delete", remaining.get("task-gone").getAction());
+        assertNull(remaining.get("task-gone").getDataSnapshot());
+
+        // A client that never synced gets the compacted snapshot; a current one does not
+        DeltaSyncResponse.ChangeFeedPage fresh = deltaSyncService.getChangesSince("reader", null, null, null);
+        assertTrue(fresh.isCompacted());
+        DeltaSyncResponse.ChangeFeedPage current = deltaSyncService.getChangesSince("reader", fresh.getNextCursor(), null, null);
+        assertFalse(current.isCompacted());
+        assertEquals(syncSequenceService.currentValue(), syncSequenceService.compactionWatermark());
+    }
+
+    @Test
+    void targetStopsBeforeFirstLogInsideRetention() {
+        sync(change("task-a", "create", 1));
+        sync(change("task-b", "create", 1));
+        sync(change("task-c", "create", 1));
+        long last = syncSequenceService.currentValue();
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(1);
+        Timestamp old = Timestamp.valueOf(cutoff.minusHours(1));
+
+        assertNull(syncSequenceService.compactionTarget(cutoff));
+
+        // The old log sequenced after a recent one waits for a later run
+        jdbcTemplate.update("UPDATE sync_logs SET timestamp = ? WHERE sequence_number <> ?", old, last - 1);
+        assertEquals(last - 2, syncSequenceService.compactionTarget(cutoff));
+
+        jdbcTemplate.update("UPDATE sync_logs SET timestamp = ?", old);
+        assertEquals(last, syncSequenceService.compactionTarget(cutoff));
+    }
+
+    private void sync(DeltaSyncRequest.SyncChange... changes) {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(List.of(changes), LocalDateTime.now()), USER_ID);
+    }
+
+    private DeltaSyncRequest.SyncChange change(String taskId, String action, int version) {
+        String data = "{\"id\":\"" + taskId + "\",\"version\":" + version + "}";
+        return new DeltaSyncRequest.SyncChange("task", taskId, action, data, LocalDateTime.now(), version);
+    }
+}
@@ -0,0 +1,164 @@
+package com.server.taskin.repository;
+
+import com.server.taskin.model.SyncLog;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the old OR + IN-list change feed with the team-aware queries on a
+ * log spread over 10,000 teams. The reader belongs to 100 of them unless
+ * -Dtaskin.benchmarks.readerTeams says otherwise. Opt in with
+ * -Dtaskin.benchmarks=true; each feed is drained once to warm up and once
+ * timed. The timings are printed, only the results are asserted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "taskin.benchmarks", matches = "true")
+class SyncLogFeedQueryBenchmarkTest {
+
+    private static final int TEAMS = 10_000;
+    private static final int READER_TEAMS = Integer.getInteger("taskin.benchmarks.readerTeams", 100);
+    private static final int LOGS = 200_000;
+    private static final int PAGE_SIZE = 500;
+    private static final String READER = "bench-reader";
+
+    private static final LocalDateTime SINCE = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        cleanUp();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        List<Object[]> teams = new ArrayList<>(TEAMS);
+        List<Object[]> members = new ArrayList<>();
+        List<String> teamIds = new ArrayList<>(TEAMS);
+        for (int i = 0; i < TEAMS; i++) {
+            String teamId = UUID.randomUUID().toString();
+            teamIds.add(teamId);
+            teams.add(new Object[] { teamId, "Team " + i, "owner-" + i, now });
+            members.add(new Object[] { UUID.randomUUID().toString(), teamId, "owner-" + i, "owner", now });
+            if (i % (TEAMS / READER_TEAMS) == 0) {
+                members.add(new Object[] { UUID.randomUUID().toString(), teamId, READER, "member", now });
+            }
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO teams (id, name, created_by, created_at) VALUES (?, ?, ?, ?)", teams);
+        jdbcTemplate.batchUpdate("INSERT INTO team_members (id, team_id, user_id, role, joined_at) VALUES (?, ?, ?, ?, ?)", members);
+
+        // The reader writes as big a share of the log as their share of teams
+        List<Object[]> logs = new ArrayList<>(LOGS);
+        for (int i = 0; i < LOGS; i++) {
+            int team = (i * 7919) % TEAMS;
+            String author = (i / 7) % (TEAMS / READER_TEAMS) == 0 ? READER : "owner-" + team;
+            logs.add(new Object[] { UUID.randomUUID().toString(), author, "task", "task-" + i, "update",
+                teamIds.get(team), now, (long) i + 1, 1, "{\"id\":\"task-" + i + "\",\"version\":1}" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO sync_logs (id, user_id, entity_type, entity_id, action, team_id, " +
+            "timestamp, sequence_number, version, data_snapshot) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)", logs);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM sync_logs");
+        jdbcTemplate.update("DELETE FROM team_members");
+        jdbcTemplate.update("DELETE FROM teams");
+    }
+
+    @Test
+    void teamAwareFeedsMatchOrScan() {
+        // Delta sync: previously OR + IN list, self-authored rows dropped in Java
+        List<String> legacyDelta = drain("legacy delta", this::legacyPage, log -> !READER.equals(log.getUserId()));
+        List<String> delta = drain("team-aware delta", after -> syncLogRepository
+            .findTeamChangesByOthersAfterSequence(READER, after, PageRequest.of(0, PAGE_SIZE)), log -> true);
+        assertEquals(legacyDelta, delta);
+
+        // Change feed: previously the same OR scan, now two disjoint index ranges merged by sequence
+        List<String> legacyFeed = drain("legacy feed", this::legacyPage, log -> true);
+        List<String> feed = drain("merged feed", this::mergedPage, log -> true);
+        assertEquals(legacyFeed, feed);
+    }
+
+    private List<SyncLog> legacyPage(long afterSequence) {
+        List<String> teamIds = jdbcTemplate.queryForList(
+            "SELECT team_id FROM team_members WHERE user_id = ?", String.class, READER);
+        return entityManager.createQuery("SELECT sl FROM SyncLog sl WHERE (sl.userId = :userId OR sl.teamId IN :teamIds) " +
+                "AND sl.sequence > :afterSequence AND sl.timestamp > :since ORDER BY sl.sequence ASC", SyncLog.class)
+            .setParameter("userId", READER)
+            .setParameter("teamIds", teamIds)
+            .setParameter("afterSequence", afterSequence)
+            .setParameter("since", SINCE)
+            .setMaxResults(PAGE_SIZE)
+            .getResultList();
+    }
+
+    // Same merge DeltaSyncService does, kept simple here
+    private List<SyncLog> mergedPage(long afterSequence) {
+        PageRequest page = PageRequest.of(0, PAGE_SIZE);
+        List<SyncLog> logs = new ArrayList<>(syncLogRepository.findOwnChangesAfterSequence(READER, afterSequence, page));
+        logs.addAll(syncLogRepository.findTeamChangesByOthersAfterSequence(READER, afterSequence, page));
+        logs.sort(Comparator.comparing(SyncLog::getSequence));
+        return logs.subList(0, Math.min(PAGE_SIZE, logs.size()));
+    }
+
+    /**
+     * Page through the whole feed and return the ids of the delivered
+     * changes, i.e. the rows of each page that pass {@code delivers}.
+     */
+    private List<String> drain(String label, Function<Long, List<SyncLog>> pages, Predicate<SyncLog> delivers) {
+        drainOnce(pages, delivers, new ArrayList<>());
+        List<String> delivered = new ArrayList<>();
+        long start = System.nanoTime();
+        int queries = drainOnce(pages, delivers, delivered);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        System.out.println(label + ": " + delivered.size() + " changes in " + queries + " pages, " + millis + " ms");
+        return delivered;
+    }
+
+    private int drainOnce(Function<Long, List<SyncLog>> pages, Predicate<SyncLog> delivers, List<String> delivered) {
+        return transactionTemplate.execute(status -> {
+            long after = 0;
+            int count = 0;
+            while (true) {
+                List<SyncLog> page = pages.apply(after);
+                count++;
+                page.stream().filter(delivers).forEach(log -> delivered.add(log.getEntityId()));
+                entityManager.clear();
+                if (page.size() < PAGE_SIZE) {
+                    return count;
+                }
+                after = page.get(page.size() - 1).getSequence();
+            }
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package com.server.taskin.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hashes run on the bounded pool, callers past the queue are rejected
+ * instead of waiting, and hashes made with another cost ask for a rehash.
+ */
+class BoundedPasswordEncoderTest {
+
+    @Test
+    void matchesAndFlagsOtherCostsForRehash() {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(1, 4, 5_000, 250, 5, 5, new SimpleMeterRegistry());
+        try {
+            String encoded = encoder.encode("secret123");
+            assertTrue(encoder.matches("secret123", encoded));
+            assertFalse(encoder.matches("wrong", encoded));
+
+            assertFalse(encoder.upgradeEncoding(encoded));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret123")));
+            assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret123")));
+        } finally {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsCallersBeyondQueue() throws Exception {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        // Cost 12 keeps the single thread and one queue slot busy while the rest arrive
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(1, 1, 30_000, 250, 12, 12, meterRegistry);
+        ExecutorService callers = Executors.newFixedThreadPool(6);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                results.add(callers.submit(() -> {
+                    start.await();
+                    try {
+                        encoder.encode("secret123");
+                        return true;
+                    } catch (BoundedPasswordEncoder.HashingBusyException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+
+            int hashed = 0;
+            for (Future<Boolean> result : results) {
+                hashed += result.get() ? 1 : 0;
+            }
+            assertTrue(hashed >= 1 && hashed < 6, "Expected some rejections, hashed " + hashed);
+            assertEquals(6 - hashed, meterRegistry.counter(BoundedPasswordEncoder.REJECTED_METRIC).count());
+        } finally {
+            callers.shutdownNow();
+            encoder.shutdown();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.server.taskin.security;
+
+import com.server.taskin.model.User;
+import com.server.taskin.service.UserService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures JwtAuthFilter overhead per request with a cache miss on every
+ * request (the old per-request user load), with a warm principal cache,
+ * and with a principal built from token claims.
+ * Opt in with -Dtaskin.benchmarks=true; timings are printed, only the
+ * authenticated principal is asserted.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "taskin.benchmarks", matches = "true")
+class JwtAuthFilterBenchmarkTest {
+
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int TIMED_REQUESTS = 20_000;
+    private static final String EMAIL = "filter-bench@taskin.test";
+
+    @Autowired
+    private JwtAuthFilter jwtAuthFilter;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    void compareCachedAndUncachedPrincipal() throws Exception {
+        User user = userService.createUser(EMAIL, "secret123", "Bench");
+        String subjectToken = tokenProvider.generateToken(EMAIL);
+        String claimsToken = tokenProvider.generateToken(user, List.of());
+
+        time("uncached", subjectToken, false);
+        time("cached", subjectToken, true);
+        time("claims", claimsToken, true);
+    }
+
+    private void time(String label, String token, boolean cached) throws Exception {
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            filter(token, cached);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_REQUESTS; i++) {
+            filter(token, cached);
+        }
+        double micros = (System.nanoTime() - start) / 1_000.0 / TIMED_REQUESTS;
+        System.out.printf("%-8s %8.1f us/request%n", label, micros);
+    }
+
+    private void filter(String token, boolean cached) throws Exception {
+        if (!cached) {
+            principalCache.invalidate(EMAIL);
+        }
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/sync/delta/changes");
+        request.addHeader("Authorization", "Bearer " + token);
+        try {
+            jwtAuthFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            AuthenticatedUser principal = (AuthenticatedUser) SecurityContextHolder.getContext()
+                .getAuthentication().getPrincipal();
+            assertEquals(EMAIL, principal.getEmail());
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
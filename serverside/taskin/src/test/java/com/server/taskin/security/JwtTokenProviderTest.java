@@ -0,0 +1,53 @@
+package com.server.taskin.security;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Verified tokens are shared until they expire; tampered and expired
+ * tokens are rejected and never cached.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class JwtTokenProviderTest {
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Value("${app.jwt.secret}")
+    private String jwtSecret;
+
+    @Test
+    void cachesOnlyValidTokens() {
+        String token = tokenProvider.generateToken("verify@taskin.test");
+
+        VerifiedToken verified = tokenProvider.verify(token);
+        assertEquals("verify@taskin.test", verified.getSubject());
+        assertSame(verified, tokenProvider.verify(token));
+
+        int signature = token.lastIndexOf('.') + 1;
+        char replacement = token.charAt(signature) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, signature) + replacement + token.substring(signature + 1);
+        assertNull(tokenProvider.verify(tampered));
+        assertNull(tokenProvider.verify("not-a-token"));
+
+        String expired = Jwts.builder()
+            .setSubject("verify@taskin.test")
+            .setExpiration(new Date(System.currentTimeMillis() - 1_000))
+            .signWith(Keys.hmacShaKeyFor(jwtSecret.getBytes()), SignatureAlgorithm.HS256)
+            .compact();
+        assertNull(tokenProvider.verify(expired));
+    }
+}
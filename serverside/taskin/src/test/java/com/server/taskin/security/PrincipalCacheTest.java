@@ -0,0 +1,97 @@
+package com.server.taskin.security;
+
+import com.server.taskin.dto.TeamRequest;
+import com.server.taskin.model.User;
+import com.server.taskin.service.TeamService;
+import com.server.taskin.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Cached principals are reused until the user changes, and a committed
+ * profile change or account disable is seen by the next request. Tokens
+ * with identity claims authenticate without queries until their auth
+ * epoch goes stale, and a membership change drops only their team claims.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class PrincipalCacheTest {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private TeamService teamService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void reusesPrincipalUntilUserChanges() {
+        User user = userService.createUser("principal@taskin.test", "secret123", "Antes");
+        double misses = count("miss");
+        double hits = count("hit");
+
+        AuthenticatedUser first = principalCache.get(user.getEmail());
+        assertSame(first, principalCache.get(user.getEmail()));
+        assertEquals(misses + 1, count("miss"));
+        assertEquals(hits + 1, count("hit"));
+
+        userService.updateUser(user.getId(), "Depois", "principal-renamed@taskin.test");
+        assertThrows(UsernameNotFoundException.class, () -> principalCache.get("principal@taskin.test"));
+        assertEquals("Depois", principalCache.get("principal-renamed@taskin.test").getName());
+
+        userService.disableUser(user.getId());
+        assertThrows(UsernameNotFoundException.class, () -> principalCache.get("principal-renamed@taskin.test"));
+    }
+
+    @Test
+    void trustsClaimsUntilMembershipChanges() {
+        User user = userService.createUser("claims@taskin.test", "secret123", "Claims");
+        VerifiedToken token = tokenProvider.verify(tokenProvider.generateToken(user, List.of()));
+        principalCache.resolve(token);
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        AuthenticatedUser principal = principalCache.resolve(token);
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(user.getId(), principal.getId());
+        assertEquals(List.of(), principal.getTeamIds());
+
+        // Joining a team stales only the token's team claim; identity still comes from the claims
+        teamService.createTeam(new TeamRequest("Equipe", null), user.getId());
+        double fromClaims = count("claims");
+        AuthenticatedUser afterJoin = principalCache.resolve(token);
+        assertNull(afterJoin.getTeamIds());
+        assertEquals(user.getId(), afterJoin.getId());
+        assertEquals(fromClaims + 1, count("claims"));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter(PrincipalCache.METRIC, "result", result).count();
+    }
+}
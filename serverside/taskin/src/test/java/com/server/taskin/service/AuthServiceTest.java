@@ -0,0 +1,102 @@
+package com.server.taskin.service;
+
+import com.server.taskin.dto.AuthResponse;
+import com.server.taskin.dto.LoginRequest;
+import com.server.taskin.dto.RegisterRequest;
+import com.server.taskin.model.User;
+import com.server.taskin.repository.AppliedMigrationRepository;
+import com.server.taskin.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Emails are matched whatever their case, and logging in reads only the
+ * credential projection, never the user entity. Stored mixed-case emails
+ * are lowercased once, and collisions keep the migration pending until the
+ * colliding account, which still logs in with its exact email, moves away.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class AuthServiceTest {
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AppliedMigrationRepository appliedMigrationRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    void logsInFromCredentialsWhateverTheEmailCase() {
+        AuthResponse registered = authService.register(new RegisterRequest("Mixed.Case@Taskin.Test", "secret123", "Mixed"));
+        assertEquals("mixed.case@taskin.test", registered.getEmail());
+        assertThrows(RuntimeException.class,
+            () -> authService.register(new RegisterRequest("mixed.case@taskin.test", "secret123", "Outro")));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        AuthResponse login = authService.login(new LoginRequest("MIXED.case@taskin.test", "secret123"));
+        assertEquals(registered.getUserId(), login.getUserId());
+        assertEquals("Mixed", login.getName());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+
+        assertThrows(RuntimeException.class,
+            () -> authService.login(new LoginRequest("mixed.case@taskin.test", "wrong-password")));
+    }
+
+    @Test
+    void normalizesStoredEmailsOnceCollisionsAreResolved() {
+        // The startup runner already recorded the migration on the empty database
+        appliedMigrationRepository.deleteById(UserService.EMAIL_MIGRATION);
+        userService.createUser("collide@taskin.test", "secret123", "Lower");
+        User collidingLegacy = legacyUser("Collide@Taskin.Test");
+        collidingLegacy.setPassword(passwordEncoder.encode("secret123"));
+        User colliding = userRepository.save(collidingLegacy);
+        User legacy = userRepository.save(legacyUser("Legacy.User@Taskin.Test"));
+
+        assertEquals(1, userService.normalizeStoredEmails());
+        assertEquals("legacy.user@taskin.test", userService.findById(legacy.getId()).getEmail());
+        assertEquals("Collide@Taskin.Test", userService.findById(colliding.getId()).getEmail());
+        assertFalse(appliedMigrationRepository.existsById(UserService.EMAIL_MIGRATION));
+
+        // The colliding account still logs in with its exact email and moves to a free one
+        AuthResponse login = authService.login(new LoginRequest("Collide@Taskin.Test", "secret123"));
+        assertEquals(colliding.getId(), login.getUserId());
+        userService.updateUser(colliding.getId(), "Legacy", "collide.2@taskin.test");
+        assertEquals(0, userService.normalizeStoredEmails());
+        assertTrue(appliedMigrationRepository.existsById(UserService.EMAIL_MIGRATION));
+    }
+
+    // Saved directly, as rows written before emails were normalized
+    private static User legacyUser(String email) {
+        User user = new User();
+        user.setEmail(email);
+        user.setPassword("not-a-hash");
+        user.setName("Legacy");
+        user.setEnabled(true);
+        return user;
+    }
+}
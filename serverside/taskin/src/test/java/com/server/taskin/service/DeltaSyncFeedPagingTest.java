@@ -0,0 +1,132 @@
+package com.server.taskin.service;
+
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.repository.EntityHeadRepository;
+import com.server.taskin.repository.FeedHeadRepository;
+import com.server.taskin.repository.SharedTaskRepository;
+import com.server.taskin.repository.SyncLogRepository;
+import com.server.taskin.util.SyncCursor;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cursor paging of the change feed: pages split on sequence, not on
+ * timestamp, so changes logged in the same millisecond are neither
+ * repeated nor skipped.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeltaSyncFeedPagingTest {
+
+    private static final String USER_ID = "paging-user";
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    @Autowired
+    private EntityHeadRepository entityHeadRepository;
+
+    @Autowired
+    private FeedHeadRepository feedHeadRepository;
+
+    @Autowired
+    private SharedTaskRepository sharedTaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        sharedTaskRepository.deleteAllInBatch();
+        entityHeadRepository.deleteAllInBatch();
+        feedHeadRepository.deleteAllInBatch();
+        syncLogRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void pagesThroughChangesLoggedInTheSameMillisecond() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(changes(5), LocalDateTime.now()), USER_ID);
+        jdbcTemplate.update("UPDATE sync_logs SET timestamp = ?", Timestamp.valueOf(LocalDateTime.now()));
+
+        List<String> seen = new ArrayList<>();
+        DeltaSyncResponse.ChangeFeedPage page = deltaSyncService.getChangesSince(USER_ID, null, before, 2);
+        collect(page, seen);
+        assertTrue(page.isHasMore());
+
+        page = deltaSyncService.getChangesSince(USER_ID, page.getNextCursor(), null, 2);
+        collect(page, seen);
+        assertTrue(page.isHasMore());
+
+        page = deltaSyncService.getChangesSince(USER_ID, page.getNextCursor(), null, 2);
+        collect(page, seen);
+        assertFalse(page.isHasMore());
+
+        assertEquals(List.of("page-task-0", "page-task-1", "page-task-2", "page-task-3", "page-task-4"), seen);
+    }
+
+    @Test
+    void lastPageEndsAtTheFeedAndCursorHoldsThere() {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(changes(2), LocalDateTime.now()), USER_ID);
+
+        DeltaSyncResponse.ChangeFeedPage exact = deltaSyncService.getChangesSince(USER_ID, SyncCursor.encode(0), null, 2);
+        assertEquals(2, exact.getChanges().size());
+        assertFalse(exact.isHasMore());
+
+        DeltaSyncResponse.ChangeFeedPage empty = deltaSyncService.getChangesSince(USER_ID, exact.getNextCursor(), null, 2);
+        assertEquals(0, empty.getChanges().size());
+        assertFalse(empty.isHasMore());
+        assertEquals(exact.getNextCursor(), empty.getNextCursor());
+    }
+
+    @Test
+    void rejectsInvalidCursors() {
+        String unknownVersion = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("s2:5".getBytes(StandardCharsets.UTF_8));
+        String negative = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("s1:-1".getBytes(StandardCharsets.UTF_8));
+
+        for (String cursor : List.of("not a cursor", unknownVersion, negative)) {
+            TaskinException e = assertThrows(TaskinException.class,
+                () -> deltaSyncService.getChangesSince(USER_ID, cursor, null, 2));
+            assertEquals("INVALID_CURSOR", e.getCode());
+        }
+    }
+
+    private static void collect(DeltaSyncResponse.ChangeFeedPage page, List<String> seen) {
+        for (DeltaSyncResponse.SyncChange change : page.getChanges()) {
+            seen.add(change.getEntityId());
+        }
+    }
+
+    private static List<DeltaSyncRequest.SyncChange> changes(int count) {
+        List<DeltaSyncRequest.SyncChange> changes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String id = "page-task-" + i;
+            String data = "{\"id\":\"" + id + "\",\"title\":\"Task " + i + "\",\"version\":1}";
+            changes.add(new DeltaSyncRequest.SyncChange("task", id, "create", data, LocalDateTime.now(), 1));
+        }
+        return changes;
+    }
+}
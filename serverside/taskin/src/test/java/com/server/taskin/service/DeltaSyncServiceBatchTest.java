@@ -0,0 +1,266 @@
+package com.server.taskin.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.repository.EntityHeadRepository;
+import com.server.taskin.repository.FeedHeadRepository;
+import com.server.taskin.repository.SharedTaskRepository;
+import com.server.taskin.repository.SyncLogRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exercises the set-based delta sync pipeline. The statement budget is what
+ * keeps round trips independent of the batch size. The throughput floor
+ * covers the whole request (apply plus change feed) on the in-memory test
+ * database and depends on the machine, so it only runs with
+ * -Dtaskin.benchmarks=true.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeltaSyncServiceBatchTest {
+
+    private static final String USER_ID = "batch-user";
+    private static final String TEAM_ID = "batch-team";
+    private static final int JDBC_BATCH_SIZE = 500;
+    private static final double MIN_CHANGES_PER_SECOND = 500;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    @Autowired
+    private EntityHeadRepository entityHeadRepository;
+
+    @Autowired
+    private SharedTaskRepository sharedTaskRepository;
+
+    @Autowired
+    private FeedHeadRepository feedHeadRepository;
+
+    @Autowired
+    private SyncBatchDeduplicator syncBatchDeduplicator;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sharedTaskRepository.deleteAllInBatch();
+        entityHeadRepository.deleteAllInBatch();
+        feedHeadRepository.deleteAllInBatch();
+        syncLogRepository.deleteAllInBatch();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 100, 10_000})
+    void appliesBatchWithBoundedRoundTrips(int size) {
+        DeltaSyncRequest request = new DeltaSyncRequest(buildChanges(size, 1), LocalDateTime.now());
+        DeltaSyncResponse response = deltaSyncService.processDeltaSync(request, USER_ID);
+
+        assertTrue(response.isSuccess());
+        assertEquals(0, response.getConflicts().size());
+        assertEquals(size, syncLogRepository.count());
+        assertEquals(size, entityHeadRepository.count());
+        assertEquals(size, sharedTaskRepository.count());
+
+        // Three tables written in JDBC batches plus a handful of reads and
+        // the feed head upserts, whose count depends on scopes, not changes
+        long batches = (size + JDBC_BATCH_SIZE - 1) / JDBC_BATCH_SIZE;
+        long inClauseChunks = (size + 999) / 1000;
+        long budget = 12 + 3 * batches + 2 * inClauseChunks;
+        assertTrue(statistics.getPrepareStatementCount() <= budget,
+            "Expected at most " + budget + " statements, got " + statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "taskin.benchmarks", matches = "true")
+    void appliesLargeBatchAboveThroughputFloor() {
+        int size = 10_000;
+        DeltaSyncRequest request = new DeltaSyncRequest(buildChanges(size, 1), LocalDateTime.now());
+
+        long start = System.nanoTime();
+        DeltaSyncResponse response = deltaSyncService.processDeltaSync(request, USER_ID);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        assertTrue(response.isSuccess());
+        double throughput = size / seconds;
+        System.out.printf("batch of %d applied at %d changes/s%n", size, (long) throughput);
+        assertTrue(throughput >= MIN_CHANGES_PER_SECOND,
+            "Throughput " + (long) throughput + " changes/s is below target");
+    }
+
+    @Test
+    void reportsConflictsForStaleVersionsInOneBatch() {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(buildChanges(100, 5), LocalDateTime.now()), USER_ID);
+
+        DeltaSyncResponse response = deltaSyncService.processDeltaSync(
+            new DeltaSyncRequest(buildChanges(100, 3), LocalDateTime.now()), USER_ID);
+
+        assertEquals(100, response.getConflicts().size());
+        assertEquals(5, response.getConflicts().get(0).getServerVersion());
+        assertEquals(100, syncLogRepository.count());
+    }
+
+    @Test
+    void checksRepeatedEntityAgainstInBatchHead() {
+        List<DeltaSyncRequest.SyncChange> changes = new ArrayList<>();
+        changes.add(change("task-dup", "create", 2));
+        changes.add(change("task-dup", "update", 1));
+        changes.add(change("task-dup", "delete", 3));
+
+        DeltaSyncResponse response = deltaSyncService.processDeltaSync(
+            new DeltaSyncRequest(changes, LocalDateTime.now()), USER_ID);
+
+        assertEquals(1, response.getConflicts().size());
+        assertEquals(2, syncLogRepository.count());
+        assertEquals(3, entityHeadRepository.findByEntityTypeAndEntityId("task", "task-dup").get().getVersion());
+        assertEquals(0, sharedTaskRepository.count());
+    }
+
+    @Test
+    void streamsWholeFeedAndResumesFromCursor() throws Exception {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(buildChanges(1_200, 1), LocalDateTime.now()), USER_ID);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        deltaSyncService.streamChangesSince(USER_ID, null, null, null, false, out);
+        JsonNode feed = objectMapper.readTree(out.toByteArray());
+
+        assertEquals(1_200, feed.get("changes").size());
+        assertFalse(feed.get("hasMore").asBoolean());
+        assertTrue(feed.get("changes").get(0).get("data").isTextual());
+
+        out.reset();
+        deltaSyncService.streamChangesSince(USER_ID, null, null, 1, true, out);
+        assertTrue(objectMapper.readTree(out.toByteArray()).get("changes").get(0).get("data").isObject());
+
+        out.reset();
+        deltaSyncService.streamChangesSince(USER_ID, feed.get("nextCursor").asText(), null, null, false, out);
+        assertEquals(0, objectMapper.readTree(out.toByteArray()).get("changes").size());
+    }
+
+    @Test
+    void bootstrapsFromCurrentStateWithoutHistory() throws Exception {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(buildChanges(20, 1), LocalDateTime.now()), USER_ID);
+        List<DeltaSyncRequest.SyncChange> updates = new ArrayList<>(buildChanges(10, 2));
+        updates.add(change("task-19", "delete", 3));
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(updates, LocalDateTime.now()), USER_ID);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        deltaSyncService.streamBootstrap(USER_ID, true, out);
+        JsonNode state = objectMapper.readTree(out.toByteArray());
+
+        // One change per live entity, carrying its latest version
+        assertEquals(19, state.get("changes").size());
+        assertEquals(2, state.get("changes").get(0).get("version").asInt());
+        assertTrue(state.get("changes").get(0).get("data").isObject());
+
+        out.reset();
+        deltaSyncService.streamChangesSince(USER_ID, state.get("nextCursor").asText(), null, null, false, out);
+        assertEquals(0, objectMapper.readTree(out.toByteArray()).get("changes").size());
+    }
+
+    @Test
+    void replaysRetriedBatchWithoutReapplying() {
+        DeltaSyncRequest request = new DeltaSyncRequest(buildChanges(50, 1), LocalDateTime.now());
+        request.setBatchId("batch-retry");
+
+        DeltaSyncResponse first = syncBatchDeduplicator.process(request, USER_ID);
+        DeltaSyncResponse retry = syncBatchDeduplicator.process(request, USER_ID);
+
+        assertEquals(0, retry.getConflicts().size());
+        assertEquals(first.getNextCursor(), retry.getNextCursor());
+        assertEquals(50, syncLogRepository.count());
+    }
+
+    @Test
+    void replaysRecordedConflictsOfRetriedBatch() {
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(buildChanges(1, 3), LocalDateTime.now()), USER_ID);
+        DeltaSyncRequest stale = new DeltaSyncRequest(buildChanges(2, 1), LocalDateTime.now());
+        stale.setBatchId("batch-conflict");
+
+        DeltaSyncResponse first = syncBatchDeduplicator.process(stale, USER_ID);
+        DeltaSyncResponse retry = syncBatchDeduplicator.process(stale, USER_ID);
+
+        assertEquals(1, first.getConflicts().size());
+        assertEquals(1, retry.getConflicts().size());
+        DeltaSyncResponse.SyncConflict conflict = retry.getConflicts().get(0);
+        assertEquals(first.getConflicts().get(0).getEntityId(), conflict.getEntityId());
+        assertEquals(3, conflict.getServerVersion());
+        assertEquals(first.getConflicts().get(0).getServerData(), conflict.getServerData());
+        assertEquals(first.getConflicts().get(0).getLocalData(), conflict.getLocalData());
+        assertEquals(2, syncLogRepository.count());
+    }
+
+    @Test
+    void rejectsBatchIdReusedForDifferentChanges() {
+        DeltaSyncRequest request = new DeltaSyncRequest(buildChanges(2, 1), LocalDateTime.now());
+        request.setBatchId("batch-reused");
+        syncBatchDeduplicator.process(request, USER_ID);
+
+        DeltaSyncRequest other = new DeltaSyncRequest(buildChanges(3, 1), LocalDateTime.now());
+        other.setBatchId("batch-reused");
+        TaskinException e = assertThrows(TaskinException.class, () -> syncBatchDeduplicator.process(other, USER_ID));
+
+        assertEquals(SyncBatchDeduplicator.BATCH_ID_REUSED, e.getCode());
+        assertEquals(2, syncLogRepository.count());
+    }
+
+    @Test
+    void feedETagMovesOnlyWithNewChanges() {
+        String empty = deltaSyncService.getFeedETag(USER_ID);
+        deltaSyncService.processDeltaSync(new DeltaSyncRequest(buildChanges(10, 1), LocalDateTime.now()), USER_ID);
+
+        String afterWrite = deltaSyncService.getFeedETag(USER_ID);
+        assertNotEquals(empty, afterWrite);
+        assertEquals(afterWrite, deltaSyncService.getFeedETag(USER_ID));
+    }
+
+    private List<DeltaSyncRequest.SyncChange> buildChanges(int size, int version) {
+        List<DeltaSyncRequest.SyncChange> changes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            changes.add(change("task-" + i, "create", version));
+        }
+        return changes;
+    }
+
+    private DeltaSyncRequest.SyncChange change(String taskId, String action, int version) {
+        String data = "{\"id\":\"" + taskId + "\",\"title\":\"Task " + taskId + "\",\"teamId\":\"" + TEAM_ID
+            + "\",\"version\":" + version + "}";
+        return new DeltaSyncRequest.SyncChange("task", taskId, action, data, LocalDateTime.now(), version);
+    }
+}
@@ -0,0 +1,53 @@
+package com.server.taskin.service;
+
+import com.server.taskin.model.User;
+import com.server.taskin.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Sync times are only written on flush, keep the newest value and never
+ * move the column backwards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class LastSyncCoalescerTest {
+
+    @Autowired
+    private LastSyncCoalescer lastSyncCoalescer;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void flushWritesLatestBufferedTime() {
+        User user = userService.createUser("coalescer@taskin.test", "secret123", "Coalescer");
+        LocalDateTime first = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime second = first.plusSeconds(5);
+
+        lastSyncCoalescer.flush();
+        lastSyncCoalescer.record(user.getId(), second);
+        lastSyncCoalescer.record(user.getId(), first);
+        assertNull(userRepository.findById(user.getId()).orElseThrow().getLastSyncAt());
+        assertEquals(second, userService.getLastSyncAt(user.getId()));
+
+        assertEquals(1, lastSyncCoalescer.flush());
+        assertEquals(second, userRepository.findById(user.getId()).orElseThrow().getLastSyncAt());
+
+        lastSyncCoalescer.record(user.getId(), first.minusHours(1));
+        lastSyncCoalescer.flush();
+        assertEquals(second, userRepository.findById(user.getId()).orElseThrow().getLastSyncAt());
+        assertEquals(0, lastSyncCoalescer.flush());
+    }
+}
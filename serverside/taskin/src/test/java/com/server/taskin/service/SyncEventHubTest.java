@@ -0,0 +1,158 @@
+package com.server.taskin.service;
+
+import com.server.taskin.dto.TeamRequest;
+import com.server.taskin.model.User;
+import com.server.taskin.util.SyncCursor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Push channels get a catch-up hint on connect, hints for committed changes
+ * of their user and teams only, and are dropped when the connection ends.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncEventHubTest {
+
+    @MockitoSpyBean
+    private SyncEventHub syncEventHub;
+
+    @Autowired
+    private SyncSequenceService syncSequenceService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TeamService teamService;
+
+    private final List<RecordingEmitter> emitters = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        emitters.forEach(RecordingEmitter::disconnect);
+    }
+
+    @Test
+    void sendsCatchUpOnConnectAndCleansUpOnDisconnect() {
+        int before = syncEventHub.getConnectionCount();
+        RecordingEmitter emitter = subscribe("hub-reader", List.of("hub-team"));
+
+        assertEquals(List.of(cursor(syncSequenceService.currentValue())), emitter.hints);
+        assertEquals(before + 1, syncEventHub.getConnectionCount());
+
+        emitter.disconnect();
+        assertEquals(before, syncEventHub.getConnectionCount());
+        publishCommitted(new SyncEventHub.ChangesLogged("hub-writer", Set.of("hub-team"), 41));
+        RecordingEmitter marker = subscribe("hub-marker", List.of());
+        publishCommitted(new SyncEventHub.ChangesLogged("hub-marker", Set.of(), 42));
+        marker.awaitHints(2);
+        assertEquals(1, emitter.hints.size());
+    }
+
+    @Test
+    void fansOutCommittedChangesToAuthorAndTouchedTeamsOnly() {
+        RecordingEmitter author = subscribe("hub-author", List.of());
+        RecordingEmitter teammate = subscribe("hub-teammate", List.of("hub-team"));
+        RecordingEmitter outsider = subscribe("hub-outsider", List.of("hub-other-team"));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new SyncEventHub.ChangesLogged("hub-author", Set.of("hub-team"), 7));
+            status.setRollbackOnly();
+        });
+        publishCommitted(new SyncEventHub.ChangesLogged("hub-author", Set.of("hub-team"), 8));
+
+        author.awaitHints(2);
+        teammate.awaitHints(2);
+        // The hub has handled both events once the committed one arrived
+        assertEquals(cursor(8), author.hints.get(1));
+        assertEquals(cursor(8), teammate.hints.get(1));
+        assertEquals(2, author.hints.size());
+        assertEquals(2, teammate.hints.size());
+        assertEquals(1, outsider.hints.size());
+    }
+
+    @Test
+    void followsMembershipChangesOfOpenChannels() {
+        User user = userService.createUser("hub-" + System.nanoTime() + "@taskin.test", "secret123", "Hub");
+        RecordingEmitter emitter = subscribe(user.getId(), List.of());
+
+        String teamId = transactionTemplate.execute(status ->
+            teamService.createTeam(new TeamRequest("Hub", null), user.getId()).getId());
+        publishCommitted(new SyncEventHub.ChangesLogged("hub-writer", Set.of(teamId), 9));
+
+        emitter.awaitHints(2);
+        assertEquals(cursor(9), emitter.hints.get(1));
+    }
+
+    private RecordingEmitter subscribe(String userId, List<String> teamIds) {
+        RecordingEmitter emitter = new RecordingEmitter();
+        emitters.add(emitter);
+        doAnswer(invocation -> emitter).when(syncEventHub).createEmitter();
+        syncEventHub.subscribe(userId, teamIds);
+        return emitter;
+    }
+
+    private void publishCommitted(Object event) {
+        transactionTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(event));
+    }
+
+    private static String cursor(long sequence) {
+        return "{\"cursor\":\"" + SyncCursor.encode(sequence) + "\"}";
+    }
+
+    // Keeps the data of each event instead of writing it to a response
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<String> hints = new CopyOnWriteArrayList<>();
+        private final List<Runnable> completionCallbacks = new CopyOnWriteArrayList<>();
+
+        @Override
+        public void send(Set<DataWithMediaType> items) {
+            for (DataWithMediaType item : items) {
+                String data = item.getData().toString();
+                if (data.startsWith("{")) {
+                    hints.add(data);
+                }
+            }
+        }
+
+        @Override
+        public void onCompletion(Runnable callback) {
+            completionCallbacks.add(callback);
+        }
+
+        void disconnect() {
+            completionCallbacks.forEach(Runnable::run);
+        }
+
+        void awaitHints(int count) {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (hints.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertTrue(hints.size() >= count, "expected " + count + " hints, got " + hints);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.server.taskin.service;
+
+import com.server.taskin.config.SyncLogMigrationRunner;
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import com.server.taskin.model.EntityHead;
+import com.server.taskin.model.SyncLog;
+import com.server.taskin.repository.EntityHeadRepository;
+import com.server.taskin.repository.FeedHeadRepository;
+import com.server.taskin.repository.SharedTaskRepository;
+import com.server.taskin.repository.SyncLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Logs written before the derived columns and tables existed are brought up
+ * to date by the startup migration, and conflict checks then run against
+ * the backfilled heads.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncLogBackfillTest {
+
+    private static final String OWNER_ID = "backfill-owner";
+    private static final String EDITOR_ID = "backfill-editor";
+
+    @Autowired
+    private SyncLogMigrationRunner syncLogMigrationRunner;
+
+    @Autowired
+    private DeltaSyncService deltaSyncService;
+
+    @Autowired
+    private SyncLogRepository syncLogRepository;
+
+    @Autowired
+    private EntityHeadRepository entityHeadRepository;
+
+    @Autowired
+    private FeedHeadRepository feedHeadRepository;
+
+    @Autowired
+    private SharedTaskRepository sharedTaskRepository;
+
+    @BeforeEach
+    void setUp() {
+        sharedTaskRepository.deleteAllInBatch();
+        entityHeadRepository.deleteAllInBatch();
+        feedHeadRepository.deleteAllInBatch();
+        syncLogRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void backfilledHeadsDriveConflictChecks() {
+        legacyLog(OWNER_ID, "task-a", "create", "{\"id\":\"task-a\",\"title\":\"A\",\"version\":1}");
+        legacyLog(EDITOR_ID, "task-a", "update", "{\"id\":\"task-a\",\"title\":\"A2\",\"version\":3}");
+        legacyLog(OWNER_ID, "task-b", "create", "{\"id\":\"task-b\",\"title\":\"B\",\"version\":2}");
+
+        syncLogMigrationRunner.run(null);
+
+        EntityHead a = entityHeadRepository.findByEntityTypeAndEntityId("task", "task-a").orElseThrow();
+        assertEquals(3, a.getVersion());
+        assertEquals("update", a.getLastAction());
+        assertEquals(OWNER_ID, a.getOwnerId());
+        assertEquals("{\"id\":\"task-a\",\"title\":\"A2\",\"version\":3}", a.getDataSnapshot());
+        assertEquals(2, entityHeadRepository.findByEntityTypeAndEntityId("task", "task-b").orElseThrow().getVersion());
+        assertEquals(0, deltaSyncService.backfillEntityHeads());
+
+        DeltaSyncResponse response = deltaSyncService.processDeltaSync(new DeltaSyncRequest(List.of(
+            change("task-a", 2), change("task-b", 3)), LocalDateTime.now()), OWNER_ID);
+
+        assertEquals(1, response.getConflicts().size());
+        assertEquals("task-a", response.getConflicts().get(0).getEntityId());
+        assertEquals(3, response.getConflicts().get(0).getServerVersion());
+        assertEquals(3, entityHeadRepository.findByEntityTypeAndEntityId("task", "task-b").orElseThrow().getVersion());
+    }
+
+    @Test
+    void backfillsSnapshotColumnsOnceFromLegacyLogs() {
+        legacyLog(OWNER_ID, "task-v", "update", "{\"id\":\"task-v\",\"version\":2,\"updatedAt\":\"2024-03-01T10:15:30\"}");
+        legacyLog(OWNER_ID, "task-s", "update", "{\"id\":\"task-s\",\"version\":\"4\",\"tags\":[{\"version\":9}]}");
+        legacyLog(OWNER_ID, "task-x", "update", "{not json");
+
+        syncLogMigrationRunner.run(null);
+
+        SyncLog versioned = onlyLog("task-v");
+        assertEquals(2, versioned.getVersion());
+        assertEquals(LocalDateTime.of(2024, 3, 1, 10, 15, 30), versioned.getEntityUpdatedAt());
+        assertEquals(4, onlyLog("task-s").getVersion());
+        assertEquals(0, onlyLog("task-x").getVersion());
+        assertNull(onlyLog("task-x").getEntityUpdatedAt());
+
+        // Every row now has a version, so a rerun finds nothing to fill
+        assertEquals(0, deltaSyncService.backfillSnapshotColumns(100));
+        syncLogMigrationRunner.run(null);
+        assertEquals(2, onlyLog("task-v").getVersion());
+        assertEquals(3, syncLogRepository.count());
+    }
+
+    private SyncLog onlyLog(String entityId) {
+        List<SyncLog> logs = syncLogRepository.findByEntityTypeAndEntityId("task", entityId);
+        assertEquals(1, logs.size());
+        return logs.get(0);
+    }
+
+    // As written before sequences, version columns and heads existed
+    private void legacyLog(String userId, String entityId, String action, String snapshot) {
+        syncLogRepository.save(new SyncLog(userId, "task", entityId, action, null, snapshot));
+    }
+
+    private static DeltaSyncRequest.SyncChange change(String taskId, int version) {
+        String data = "{\"id\":\"" + taskId + "\",\"title\":\"Task " + taskId + "\",\"version\":" + version + "}";
+        return new DeltaSyncRequest.SyncChange("task", taskId, "update", data, LocalDateTime.now(), version);
+    }
+}
@@ -0,0 +1,88 @@
+package com.server.taskin.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.taskin.config.WireFormatConfig;
+import com.server.taskin.dto.SyncRequest;
+import com.server.taskin.dto.SyncResponse;
+import com.server.taskin.exception.TaskinException;
+import com.server.taskin.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.Reader;
+import java.io.StringWriter;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Uploads are validated while they are copied, and a rejected one leaves
+ * the stored database alone. Download validators name the negotiated
+ * format, while If-Match on a patch only checks the stored version.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class SyncServiceTest {
+
+    private static final String DATABASE = "{\"tasks\":[],\"categories\":[]}";
+
+    @Autowired
+    private SyncService syncService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TaskDatabaseStore taskDatabaseStore;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void rejectedUploadKeepsStoredDatabase() throws Exception {
+        User user = userService.createUser("upload@taskin.test", "secret123", "Upload");
+        String stored = "{\"tasks\":[{\"id\":\"t1\",\"title\":\"A\"}],\"categories\":[]}";
+        assertTrue(syncService.uploadDatabase(user.getId(), new SyncRequest(" " + stored, LocalDateTime.now())).isSuccess());
+
+        assertRejected(user, "{\"tasks\":[]}", "'categories'");
+        assertRejected(user, "{\"categories\":[]}", "'tasks'");
+        assertRejected(user, "[{\"tasks\":[],\"categories\":[]}]", "'tasks' e 'categories'");
+        assertRejected(user, "{\"tasks\":[{\"id\":\"t2\"}],\"categories\":[", "Formato JSON inválido");
+        assertRejected(user, "{\"tasks\":[],\"categories\":[]", "Formato JSON inválido");
+
+        StringWriter current = new StringWriter();
+        try (Reader reader = taskDatabaseStore.openReader(user.getId())) {
+            reader.transferTo(current);
+        }
+        assertEquals(stored, current.toString());
+    }
+
+    @Test
+    void downloadETagsDependOnFormat() throws Exception {
+        User user = userService.createUser("etag@taskin.test", "secret123", "ETag");
+        assertTrue(syncService.uploadDatabase(user.getId(), new SyncRequest(DATABASE, LocalDateTime.now())).isSuccess());
+
+        String json = syncService.getDownloadETag(user.getId(), MediaType.APPLICATION_JSON);
+        String smile = syncService.getDownloadETag(user.getId(), WireFormatConfig.SMILE);
+        assertNotEquals(json, smile);
+        assertNotEquals(syncService.getStateDownloadETag(user.getId(), MediaType.APPLICATION_JSON),
+            syncService.getStateDownloadETag(user.getId(), WireFormatConfig.CBOR));
+
+        // Any format's tag of the current version satisfies If-Match
+        syncService.patchDatabase(user.getId(), objectMapper.readTree("{\"title\":\"A\"}"), false, "\"" + smile + "\"");
+        assertThrows(TaskinException.class, () -> syncService.patchDatabase(user.getId(),
+            objectMapper.readTree("{\"title\":\"B\"}"), false, "\"" + json + "\""));
+    }
+
+    private void assertRejected(User user, String database, String reason) {
+        SyncResponse response = syncService.uploadDatabase(user.getId(), new SyncRequest(database, LocalDateTime.now()));
+        assertFalse(response.isSuccess());
+        assertTrue(response.getMessage().contains(reason), response.getMessage());
+    }
+}
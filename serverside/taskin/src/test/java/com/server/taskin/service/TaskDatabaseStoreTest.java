@@ -0,0 +1,127 @@
+package com.server.taskin.service;
+
+import com.server.taskin.repository.SyncChunkRepository;
+import com.server.taskin.repository.TaskDatabaseBlobRepository;
+import com.server.taskin.util.ContentDefinedChunker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Chunked storage should write only the chunks around an edit and serve
+ * the same bytes back through either upload path.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskDatabaseStoreTest {
+
+    private static final String USER_ID = "chunk-user";
+
+    @Autowired
+    private TaskDatabaseStore taskDatabaseStore;
+
+    @Autowired
+    private SyncChunkStore syncChunkStore;
+
+    @Autowired
+    private SyncChunkRepository syncChunkRepository;
+
+    @Autowired
+    private TaskDatabaseBlobRepository taskDatabaseBlobRepository;
+
+    @BeforeEach
+    void setUp() {
+        syncChunkRepository.deleteAllInBatch();
+        taskDatabaseBlobRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void smallEditWritesFewChunks() throws IOException {
+        String original = database(3_000, -1);
+        taskDatabaseStore.save(USER_ID, out -> out.write(original.getBytes(StandardCharsets.UTF_8)));
+        long initialChunks = syncChunkRepository.count();
+        assertTrue(initialChunks > 10, "Expected the database to span many chunks, got " + initialChunks);
+
+        String edited = database(3_000, 1_500);
+        taskDatabaseStore.save(USER_ID, out -> out.write(edited.getBytes(StandardCharsets.UTF_8)));
+
+        assertTrue(syncChunkRepository.count() - initialChunks <= 3,
+            "Edit wrote " + (syncChunkRepository.count() - initialChunks) + " new chunks");
+        assertEquals(edited, read());
+    }
+
+    @Test
+    void rejectedUploadStoresNoChunks() {
+        String content = database(3_000, -1);
+
+        assertThrows(IOException.class, () -> taskDatabaseStore.save(USER_ID, out -> {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            throw new IOException("invalid database");
+        }));
+
+        assertEquals(0, syncChunkRepository.count());
+        assertFalse(taskDatabaseStore.exists(USER_ID));
+    }
+
+    @Test
+    void commitsManifestOnceAllChunksAreUploaded() throws IOException {
+        String content = database(1_000, -1);
+        Map<String, byte[]> chunks = new LinkedHashMap<>();
+        List<String> manifest = new ArrayList<>();
+        try (ContentDefinedChunker chunker = new ContentDefinedChunker(chunk -> {
+            String hash = ContentDefinedChunker.hash(chunk);
+            manifest.add(hash);
+            chunks.put(hash, chunk);
+        })) {
+            chunker.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(chunks.size(), syncChunkStore.findMissing(USER_ID, manifest).size());
+        assertEquals(chunks.size(), taskDatabaseStore.commitManifest(USER_ID, manifest, reader -> { }).size());
+
+        for (Map.Entry<String, byte[]> chunk : chunks.entrySet()) {
+            syncChunkStore.put(USER_ID, chunk.getKey(), chunk.getValue());
+        }
+
+        assertTrue(taskDatabaseStore.commitManifest(USER_ID, manifest, reader -> { }).isEmpty());
+        assertEquals(content, read());
+    }
+
+    private String read() throws IOException {
+        StringWriter out = new StringWriter();
+        try (Reader reader = taskDatabaseStore.openReader(USER_ID)) {
+            reader.transferTo(out);
+        }
+        return out.toString();
+    }
+
+    private static String database(int tasks, int editedTask) {
+        StringBuilder json = new StringBuilder("{\"tasks\":[");
+        for (int i = 0; i < tasks; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"task-").append(i).append("\",\"title\":\"")
+                .append(i == editedTask ? "Edited title" : "Task number " + i)
+                .append("\",\"description\":\"Some description for task ").append(i * 7919 % 10007)
+                .append("\",\"done\":").append(i % 3 == 0).append('}');
+        }
+        return json.append("],\"categories\":[]}").toString();
+    }
+}
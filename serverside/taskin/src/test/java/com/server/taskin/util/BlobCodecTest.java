@@ -0,0 +1,54 @@
+package com.server.taskin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BlobCodecTest {
+
+    @Test
+    void roundTripsThroughEveryCodec() throws IOException {
+        byte[] raw = "{\"id\":\"task\",\"title\":\"Título\"},".repeat(2_000).getBytes(StandardCharsets.UTF_8);
+
+        for (String name : new String[] { "deflate", "identity" }) {
+            BlobCodec codec = BlobCodec.forName(name);
+            assertSame(codec, BlobCodec.forName(codec.name()));
+
+            ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+            try (OutputStream out = codec.encode(encoded)) {
+                out.write(raw);
+            }
+            try (InputStream in = codec.decode(new ByteArrayInputStream(encoded.toByteArray()))) {
+                assertArrayEquals(raw, in.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    void deflateCompressesAndClosesTwice() throws IOException {
+        byte[] raw = "aaaaaaaaaa".repeat(1_000).getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream encoded = new ByteArrayOutputStream();
+        OutputStream out = BlobCodec.DEFLATE.encode(encoded);
+        out.write(raw);
+        out.close();
+        // A second close must not touch the ended deflater
+        out.close();
+
+        assertTrue(encoded.size() < raw.length / 10);
+    }
+
+    @Test
+    void rejectsUnknownCodec() {
+        assertThrows(IllegalArgumentException.class, () -> BlobCodec.forName("zstd"));
+    }
+}
@@ -0,0 +1,88 @@
+package com.server.taskin.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A computation that fails, even with an Error, is not remembered and
+ * releases callers waiting for it. One still running is not evicted.
+ */
+class BoundedTtlCacheTest {
+
+    @Test
+    void forgetsComputationFailingWithError() throws Exception {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(10, 60_000);
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> owner = callers.submit(() -> cache.getOrCompute("key", () -> {
+                computing.countDown();
+                await(fail);
+                throw new StackOverflowError();
+            }));
+            computing.await();
+            // Either waits on the failing computation or, if it arrives late, fails on its
+            // own; a waiter that was never released would time out instead
+            Future<?> waiter = callers.submit(() -> cache.getOrCompute("key", () -> {
+                throw new IllegalStateException();
+            }));
+            fail.countDown();
+
+            assertThrows(ExecutionException.class, () -> owner.get(5, TimeUnit.SECONDS));
+            assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertEquals("value", cache.getOrCompute("key", () -> "value"));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void keepsInFlightEntryPastSizeLimit() throws Exception {
+        BoundedTtlCache<String, String> cache = new BoundedTtlCache<>(1, 60_000);
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = callers.submit(() -> cache.getOrCompute("slow", () -> {
+                runs.incrementAndGet();
+                computing.countDown();
+                await(finish);
+                return "slow";
+            }));
+            computing.await();
+            assertEquals("fast", cache.getOrCompute("fast", () -> "fast"));
+            // The slow entry outlived the overflow, so this caller joins it
+            Future<String> second = callers.submit(() -> cache.getOrCompute("slow", () -> {
+                runs.incrementAndGet();
+                return "again";
+            }));
+            finish.countDown();
+
+            assertEquals("slow", first.get(5, TimeUnit.SECONDS));
+            assertEquals("slow", second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, runs.get());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
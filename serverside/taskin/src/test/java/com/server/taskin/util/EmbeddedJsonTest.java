@@ -0,0 +1,59 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.server.taskin.dto.DeltaSyncResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EmbeddedJsonTest {
+
+    private static final String SNAPSHOT = "{\"id\":\"t1\",\"title\":\"Comprar \\\"pão\\\"\",\"tags\":[\"casa\"]}";
+
+    private final ObjectMapper jsonMapper = new ObjectMapper().findAndRegisterModules();
+    private final ObjectMapper smileMapper = jsonMapper.copyWith(new SmileFactory());
+
+    @Test
+    void jsonKeepsSnapshotsAsStrings() throws Exception {
+        JsonNode written = jsonMapper.readTree(jsonMapper.writeValueAsString(change(SNAPSHOT)));
+
+        assertTrue(written.get("data").isTextual());
+        assertEquals(SNAPSHOT, written.get("data").asText());
+    }
+
+    @Test
+    void protocolTwoEmbedsSnapshotsAsRawJson() throws Exception {
+        JsonNode written = jsonMapper.readTree(jsonMapper.writer()
+            .withAttribute(EmbeddedJson.RAW_JSON_ATTRIBUTE, Boolean.TRUE)
+            .writeValueAsString(change(SNAPSHOT)));
+
+        assertEquals(jsonMapper.readTree(SNAPSHOT), written.get("data"));
+        DeltaSyncResponse.SyncChange decoded = jsonMapper.treeToValue(written, DeltaSyncResponse.SyncChange.class);
+        assertEquals(jsonMapper.readTree(SNAPSHOT), jsonMapper.readTree(decoded.getData()));
+    }
+
+    @Test
+    void smileEmbedsSnapshotsAsObjects() throws Exception {
+        byte[] encoded = smileMapper.writeValueAsBytes(change(SNAPSHOT));
+
+        assertTrue(smileMapper.readTree(encoded).get("data").isObject());
+        DeltaSyncResponse.SyncChange decoded = smileMapper.readValue(encoded, DeltaSyncResponse.SyncChange.class);
+        assertEquals(jsonMapper.readTree(SNAPSHOT), jsonMapper.readTree(decoded.getData()));
+    }
+
+    @Test
+    void smileKeepsNonJsonTextAsString() throws Exception {
+        byte[] encoded = smileMapper.writeValueAsBytes(change("{not json"));
+
+        assertEquals("{not json", smileMapper.readValue(encoded, DeltaSyncResponse.SyncChange.class).getData());
+    }
+
+    private static DeltaSyncResponse.SyncChange change(String data) {
+        return new DeltaSyncResponse.SyncChange("task", "t1", "update", data, LocalDateTime.of(2025, 1, 1, 12, 0), 3);
+    }
+}
@@ -0,0 +1,73 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.server.taskin.exception.TaskinException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonPatchUtilTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private JsonNode database() throws Exception {
+        return objectMapper.readTree("{\"tasks\":[{\"id\":\"a\",\"title\":\"A\",\"done\":false},"
+            + "{\"id\":\"b\",\"title\":\"B\"},{\"id\":\"c\",\"title\":\"C\"}],\"categories\":[]}");
+    }
+
+    @Test
+    void jsonPatchAddressesTasksByIdOrIndex() throws Exception {
+        JsonNode patch = objectMapper.readTree("["
+            + "{\"op\":\"replace\",\"path\":\"/tasks/b/title\",\"value\":\"B2\"},"
+            + "{\"op\":\"test\",\"path\":\"/tasks/1/title\",\"value\":\"B2\"},"
+            + "{\"op\":\"remove\",\"path\":\"/tasks/a\"},"
+            + "{\"op\":\"add\",\"path\":\"/tasks/-\",\"value\":{\"id\":\"d\",\"title\":\"D\"}},"
+            + "{\"op\":\"replace\",\"path\":\"/tasks/d/title\",\"value\":\"D2\"}]");
+
+        JsonNode result = JsonPatchUtil.applyJsonPatch(database(), patch);
+
+        assertEquals(objectMapper.readTree("[{\"id\":\"b\",\"title\":\"B2\"},{\"id\":\"c\",\"title\":\"C\"},"
+            + "{\"id\":\"d\",\"title\":\"D2\"}]"), result.get("tasks"));
+    }
+
+    @Test
+    void jsonPatchRejectsUnknownIdAndFailedTest() throws Exception {
+        assertThrows(TaskinException.class, () -> JsonPatchUtil.applyJsonPatch(database(),
+            objectMapper.readTree("[{\"op\":\"remove\",\"path\":\"/tasks/zzz\"}]")));
+        assertThrows(TaskinException.class, () -> JsonPatchUtil.applyJsonPatch(database(),
+            objectMapper.readTree("[{\"op\":\"test\",\"path\":\"/tasks/a/done\",\"value\":true}]")));
+    }
+
+    @Test
+    void mergePatchMergesKeyedTasks() throws Exception {
+        JsonNode patch = objectMapper.readTree(
+            "{\"tasks\":{\"a\":{\"done\":true,\"title\":null},\"c\":null,\"e\":{\"title\":\"E\"}},\"lastModified\":\"x\"}");
+
+        JsonNode result = JsonPatchUtil.applyMergePatch(database(), patch);
+
+        assertEquals(objectMapper.readTree("[{\"id\":\"a\",\"done\":true},{\"id\":\"b\",\"title\":\"B\"},"
+            + "{\"title\":\"E\",\"id\":\"e\"}]"), result.get("tasks"));
+        assertEquals("x", result.get("lastModified").asText());
+    }
+
+    @Test
+    void mergePatchReplacesArraysPerRfc() throws Exception {
+        JsonNode result = JsonPatchUtil.applyMergePatch(database(), objectMapper.readTree("{\"tasks\":[]}"));
+
+        assertEquals(0, result.get("tasks").size());
+        assertFalse(result.get("categories").isMissingNode());
+    }
+
+    @Test
+    void mergePatchReplacesEmptyArrayWithObject() throws Exception {
+        JsonNode result = JsonPatchUtil.applyMergePatch(database(),
+            objectMapper.readTree("{\"categories\":{\"x\":{\"title\":\"X\"}}}"));
+
+        assertTrue(result.get("categories").isObject());
+        assertEquals("X", result.get("categories").get("x").get("title").asText());
+    }
+}
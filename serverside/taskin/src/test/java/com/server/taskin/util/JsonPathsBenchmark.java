@@ -0,0 +1,112 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.server.taskin.dto.DeltaSyncRequest;
+import com.server.taskin.dto.DeltaSyncResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JMH benchmarks of the JSON paths before and after JsonCodecs: a new
+ * ObjectMapper per validation vs a streaming check, snapshots read into a
+ * Map vs SnapshotFields, and delta sync DTOs through a plain mapper vs
+ * prebuilt readers/writers with Blackbird. Run through
+ * JsonPathsBenchmarkTest.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonPathsBenchmark {
+
+    private static final int CHANGES = 200;
+
+    private ObjectMapper plainMapper;
+    private ObjectWriter tunedResponseWriter;
+    private ObjectReader tunedRequestReader;
+
+    private String snapshot;
+    private DeltaSyncResponse response;
+    private byte[] request;
+
+    @Setup
+    public void setUp() throws Exception {
+        plainMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        ObjectMapper tunedMapper = JsonMapper.builder().addModule(new JavaTimeModule()).addModule(new BlackbirdModule()).build();
+        tunedResponseWriter = tunedMapper.writerFor(DeltaSyncResponse.class);
+        tunedRequestReader = tunedMapper.readerFor(DeltaSyncRequest.class);
+
+        LocalDateTime now = LocalDateTime.of(2025, 3, 1, 9, 0);
+        snapshot = "{\"id\":\"" + UUID.randomUUID() + "\",\"title\":\"Revisar relatório do cliente\","
+            + "\"description\":\"Conferir números do orçamento antes da reunião de sexta\",\"priority\":\"high\","
+            + "\"status\":\"in_progress\",\"dueDate\":\"2025-03-07T18:00:00\",\"categoryId\":\"" + UUID.randomUUID() + "\","
+            + "\"progressPercentage\":40,\"userId\":\"" + UUID.randomUUID() + "\",\"teamId\":null,\"version\":4,"
+            + "\"createdAt\":\"2025-02-20T10:15:00\",\"updatedAt\":\"2025-03-01T09:00:00\",\"isRecurring\":false}";
+
+        List<DeltaSyncResponse.SyncChange> serverChanges = new ArrayList<>(CHANGES);
+        List<DeltaSyncRequest.SyncChange> clientChanges = new ArrayList<>(CHANGES);
+        for (int i = 0; i < CHANGES; i++) {
+            String id = UUID.randomUUID().toString();
+            serverChanges.add(new DeltaSyncResponse.SyncChange("task", id, "update", snapshot, now, 4));
+            clientChanges.add(new DeltaSyncRequest.SyncChange("task", id, "update", snapshot, now, 4));
+        }
+        response = new DeltaSyncResponse(serverChanges, new ArrayList<>(), now, true, "Sincronização concluída");
+        request = plainMapper.writeValueAsBytes(new DeltaSyncRequest(clientChanges, now));
+    }
+
+    @Benchmark
+    public Object validateWithNewMapper() throws Exception {
+        return new ObjectMapper().readTree(snapshot);
+    }
+
+    @Benchmark
+    public boolean validateStreaming() {
+        return JsonUtil.isValidJson(snapshot);
+    }
+
+    @Benchmark
+    public Object snapshotAsMap() throws Exception {
+        return plainMapper.readValue(snapshot, Map.class);
+    }
+
+    @Benchmark
+    public Object snapshotFields() {
+        return SnapshotFields.parse(snapshot);
+    }
+
+    @Benchmark
+    public byte[] writeResponsePlain() throws Exception {
+        return plainMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] writeResponseTuned() throws Exception {
+        return tunedResponseWriter.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public Object readRequestPlain() throws Exception {
+        return plainMapper.readValue(request, DeltaSyncRequest.class);
+    }
+
+    @Benchmark
+    public Object readRequestTuned() throws Exception {
+        return tunedRequestReader.readValue(request);
+    }
+}
@@ -0,0 +1,33 @@
+package com.server.taskin.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs {@link JsonPathsBenchmark} with JMH. Opt in with
+ * -Dtaskin.benchmarks=true; the JMH report is printed, nothing is asserted
+ * about the timings.
+ */
+@EnabledIfSystemProperty(named = "taskin.benchmarks", matches = "true")
+class JsonPathsBenchmarkTest {
+
+    @Test
+    void runJmh() throws Exception {
+        Options options = new OptionsBuilder()
+            .include(JsonPathsBenchmark.class.getName())
+            .forks(1)
+            .warmupIterations(3)
+            .warmupTime(TimeValue.seconds(1))
+            .measurementIterations(5)
+            .measurementTime(TimeValue.seconds(1))
+            .build();
+
+        assertFalse(new Runner(options).run().isEmpty());
+    }
+}
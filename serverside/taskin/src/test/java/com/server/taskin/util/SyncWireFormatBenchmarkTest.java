@@ -0,0 +1,114 @@
+package com.server.taskin.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.server.taskin.dto.DeltaSyncResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares payload size and parse time of a delta sync response in JSON,
+ * Smile and CBOR. The response holds -Dtaskin.benchmarks.changes task
+ * snapshots (default 2,000) shaped like the mobile Task type. Opt in with
+ * -Dtaskin.benchmarks=true; timings are printed, only the round trip is
+ * asserted.
+ */
+@EnabledIfSystemProperty(named = "taskin.benchmarks", matches = "true")
+class SyncWireFormatBenchmarkTest {
+
+    private static final int CHANGES = Integer.getInteger("taskin.benchmarks.changes", 2_000);
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int TIMED_ROUNDS = 50;
+
+    private final ObjectMapper jsonMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Test
+    void compareFormats() throws Exception {
+        DeltaSyncResponse response = response();
+
+        for (ObjectMapper mapper : List.of(jsonMapper, jsonMapper.copyWith(new SmileFactory()),
+                jsonMapper.copyWith(new CBORFactory()))) {
+            byte[] encoded = mapper.writeValueAsBytes(response);
+            DeltaSyncResponse decoded = mapper.readValue(encoded, DeltaSyncResponse.class);
+            assertEquals(jsonMapper.readTree(response.getChanges().get(0).getData()),
+                jsonMapper.readTree(decoded.getChanges().get(0).getData()));
+
+            for (int i = 0; i < WARMUP_ROUNDS; i++) {
+                mapper.readValue(encoded, DeltaSyncResponse.class);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < TIMED_ROUNDS; i++) {
+                mapper.readValue(encoded, DeltaSyncResponse.class);
+            }
+            double parseMs = (System.nanoTime() - start) / 1_000_000.0 / TIMED_ROUNDS;
+
+            System.out.printf("%-6s %,10d bytes (%,9d deflated)  parse %7.2f ms%n",
+                mapper.getFactory().getFormatName(), encoded.length, deflatedSize(encoded), parseMs);
+        }
+    }
+
+    private DeltaSyncResponse response() {
+        Random random = new Random(42);
+        String userId = UUID.randomUUID().toString();
+        String[] categories = { UUID.randomUUID().toString(), UUID.randomUUID().toString(), UUID.randomUUID().toString() };
+        String[] words = { "revisar", "relatório", "enviar", "reunião", "cliente", "orçamento", "projeto", "ligar",
+            "comprar", "planejar", "sprint", "corrigir", "\"urgente\"", "documentação", "equipe" };
+
+        List<DeltaSyncResponse.SyncChange> changes = new ArrayList<>(CHANGES);
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        for (int i = 0; i < CHANGES; i++) {
+            String id = UUID.randomUUID().toString();
+            LocalDateTime updatedAt = base.plusMinutes(i * 7L);
+            ObjectNode task = jsonMapper.createObjectNode();
+            task.put("id", id);
+            task.put("title", sentence(random, words, 3 + random.nextInt(4)));
+            task.put("description", sentence(random, words, 10 + random.nextInt(20)));
+            task.put("priority", new String[] { "low", "medium", "high" }[random.nextInt(3)]);
+            task.put("status", new String[] { "pending", "in_progress", "completed" }[random.nextInt(3)]);
+            task.put("dueDate", updatedAt.plusDays(random.nextInt(30)).toString());
+            task.put("categoryId", categories[random.nextInt(categories.length)]);
+            task.put("progressPercentage", random.nextInt(101));
+            task.put("userId", userId);
+            task.put("version", 1 + random.nextInt(10));
+            task.put("createdAt", updatedAt.minusDays(random.nextInt(60)).toString());
+            task.put("updatedAt", updatedAt.toString());
+            task.put("isRecurring", random.nextInt(10) == 0);
+            changes.add(new DeltaSyncResponse.SyncChange("task", id, "update", task.toString(), updatedAt,
+                task.get("version").asInt()));
+        }
+
+        DeltaSyncResponse response = new DeltaSyncResponse(changes, new ArrayList<>(), base.plusMinutes(CHANGES * 7L),
+            true, "Sincronização concluída");
+        response.setNextCursor("c1." + CHANGES);
+        return response;
+    }
+
+    private static String sentence(Random random, String[] words, int length) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            sentence.append(i == 0 ? "" : " ").append(words[random.nextInt(words.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static int deflatedSize(byte[] encoded) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (DeflaterOutputStream deflater = new DeflaterOutputStream(out, new Deflater(Deflater.BEST_SPEED))) {
+            deflater.write(encoded);
+        }
+        return out.size();
+    }
+}